@@ -0,0 +1,73 @@
+package benchmark.collective;
+
+import io.collective.ConcurrentAgedCache;
+import io.collective.LongAgedCache;
+import io.collective.SimpleAgedCache;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.HashMap;
+import java.util.function.IntFunction;
+
+public class FootprintComparison {
+    //Description:
+    //   prints the retained heap per entry of each cache variant holding the same numeric ids
+    //   not a JMH benchmark: footprint is a single measurement of live heap, taken as the used heap after a full
+    //   collection with the cache reachable, minus the used heap before it was built
+    //   every entry shares one value object, so the figures are the cost of the cache itself plus its keys;
+    //   the String keyed caches pay for a String per id, LongAgedCache for none and the HashMap for a Long
+    //   run with ./gradlew footprint
+
+    private static final int ENTRIES = 1_000_000;
+    private static final Object VALUE = "aValue";
+
+    public static void main(String[] args) {
+        int entries = (args.length > 0) ? Integer.parseInt(args[0]) : ENTRIES;
+
+        report("SimpleAgedCache (String keys)", entries, count -> {
+            SimpleAgedCache cache = new SimpleAgedCache();
+            for (int id = 0; id < count; id++) {
+                cache.put(Integer.toString(id), VALUE, 0);
+            }
+            return cache;
+        });
+        report("ConcurrentAgedCache (String keys)", entries, count -> {
+            ConcurrentAgedCache cache = new ConcurrentAgedCache();
+            for (int id = 0; id < count; id++) {
+                cache.put(Integer.toString(id), VALUE, 0);
+            }
+            return cache;
+        });
+        report("LongAgedCache (long keys)", entries, count -> {
+            LongAgedCache cache = new LongAgedCache();
+            for (int id = 0; id < count; id++) {
+                cache.put(id, VALUE, 0);
+            }
+            return cache;
+        });
+        report("HashMap<Long, Object>", entries, count -> {
+            HashMap<Long, Object> map = new HashMap<>();
+            for (long id = 0; id < count; id++) {
+                map.put(id, VALUE);
+            }
+            return map;
+        });
+    }
+
+    private static void report(String variant, int entries, IntFunction<Object> build) {
+        long before = usedHeap();
+        Object cache = build.apply(entries);
+        long after = usedHeap();
+        System.out.printf("%-36s %8.1f bytes/entry%n", variant, (double) (after - before) / entries);
+        Reference.reachabilityFence(cache); // keep the cache alive through the second measurement
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
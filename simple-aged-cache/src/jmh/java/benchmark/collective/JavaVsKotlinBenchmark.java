@@ -0,0 +1,116 @@
+package benchmark.collective;
+
+import io.collective.SimpleAgedCache;
+import io.collective.SimpleAgedKache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JavaVsKotlinBenchmark {
+    //Description:
+    //   runs the same read/write mixes against SimpleAgedCache and SimpleAgedKache
+    //   both are filled with permanent entries; a read is a get of one of them and a write puts a fresh
+    //   entry that expires a millisecond later, the manual clock moving one millisecond per write
+    //   SimpleAgedKache scans its arrays on every put, so sizes stop at 10K to keep setup in seconds
+    //   it also prints on every miss and expiry check; stdout is discarded for the trial so the terminal
+    //   is not part of the measurement, though building the messages still is
+
+    private static final int PROBES = 1 << 16; // length of the pre-generated operation sequence, a power of two for masking
+
+    @Param({"JAVA", "KOTLIN"})
+    String implementation;
+
+    @Param({"READ_HEAVY", "MIXED", "WRITE_HEAVY"})
+    Workload workload;
+
+    @Param({"1000", "10000"})
+    int entries;
+
+    interface AgedCache {
+        void put(String key, Object value, int retentionInMillis);
+
+        Object get(String key);
+    }
+
+    SimpleAgedCacheWriteBenchmark.ManualClock clock;
+    AgedCache cache;
+    String[] keys;
+    String[] shortLivedKeys;
+    int[] probes;
+    boolean[] writes;
+    Object value = "aValue";
+    PrintStream stdout;
+    int index;
+
+    @Setup
+    public void setUp() {
+        clock = new SimpleAgedCacheWriteBenchmark.ManualClock();
+        if (implementation.equals("JAVA")) {
+            SimpleAgedCache java = new SimpleAgedCache(clock);
+            cache = new AgedCache() {
+                public void put(String key, Object value, int retentionInMillis) {
+                    java.put(key, value, retentionInMillis);
+                }
+
+                public Object get(String key) {
+                    return java.get(key);
+                }
+            };
+        } else {
+            SimpleAgedKache kotlin = new SimpleAgedKache(clock);
+            cache = new AgedCache() {
+                public void put(String key, Object value, int retentionInMillis) {
+                    kotlin.put(key, value, retentionInMillis);
+                }
+
+                public Object get(String key) {
+                    return kotlin.get(key);
+                }
+            };
+        }
+
+        keys = new String[entries];
+        for (int i = 0; i < entries; i++) {
+            keys[i] = "key" + i;
+            cache.put(keys[i], value, 0);
+        }
+        shortLivedKeys = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            shortLivedKeys[i] = "shortLived" + i;
+        }
+        probes = KeyDistribution.UNIFORM.sample(entries, PROBES, 42);
+        writes = workload.writes(PROBES, 43);
+
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public Object operation() {
+        int probe = index++ & (PROBES - 1);
+        if (writes[probe]) {
+            clock.millis++;
+            cache.put(shortLivedKeys[probe], value, 1);
+            return null;
+        }
+        return cache.get(keys[probes[probe]]);
+    }
+}
@@ -0,0 +1,48 @@
+package benchmark.collective;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public enum KeyDistribution {
+    //Description:
+    //   the key popularity curves the workload benchmarks draw from
+    //   UNIFORM picks every key equally often
+    //   ZIPFIAN picks the key of rank k with probability proportional to 1 / k^0.99, the skew usually
+    //      quoted for web and storage caches, so a few hundred keys take most of the traffic
+
+    UNIFORM {
+        @Override
+        int[] sample(int keyCount, int sampleCount, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            int[] sample = new int[sampleCount];
+            for (int i = 0; i < sampleCount; i++) {
+                sample[i] = random.nextInt(keyCount);
+            }
+            return sample;
+        }
+    },
+    ZIPFIAN {
+        @Override
+        int[] sample(int keyCount, int sampleCount, long seed) {
+            // inverse transform sampling over the cumulative distribution of the ranks
+            double[] cumulative = new double[keyCount];
+            double total = 0;
+            for (int rank = 0; rank < keyCount; rank++) {
+                total += 1.0 / Math.pow(rank + 1, SKEW);
+                cumulative[rank] = total;
+            }
+
+            SplittableRandom random = new SplittableRandom(seed);
+            int[] sample = new int[sampleCount];
+            for (int i = 0; i < sampleCount; i++) {
+                int found = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                sample[i] = Math.min((found >= 0) ? found : (-found - 1), keyCount - 1);
+            }
+            return sample;
+        }
+    };
+
+    private static final double SKEW = 0.99;
+
+    abstract int[] sample(int keyCount, int sampleCount, long seed);
+}
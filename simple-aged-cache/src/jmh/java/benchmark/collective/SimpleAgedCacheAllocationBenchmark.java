@@ -0,0 +1,55 @@
+package benchmark.collective;
+
+import io.collective.SimpleAgedCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SimpleAgedCacheAllocationBenchmark {
+    //Description:
+    //   measures what expiring puts and gets allocate, read from the gc profiler's gc.alloc.rate.norm
+    //   keys and the value are built up front and the clock is a manual one, so any bytes reported
+    //   per operation come from the cache itself
+    //   the steady state holds 64K expiring entries: each put moves the clock one millisecond and
+    //   expires the entry written 64K operations earlier, so the arrays never have to grow
+
+    private static final int LIVE = 1 << 16; // live entries, a power of two for masking
+
+    SimpleAgedCacheWriteBenchmark.ManualClock clock;
+    SimpleAgedCache cache;
+    String[] keys;
+    Object value = "aValue";
+    int index;
+
+    @Setup
+    public void setUp() {
+        clock = new SimpleAgedCacheWriteBenchmark.ManualClock();
+        cache = new SimpleAgedCache(clock);
+        keys = new String[LIVE];
+        for (int i = 0; i < LIVE; i++) {
+            keys[i] = "key" + i;
+            clock.millis++;
+            cache.put(keys[i], value, LIVE);
+        }
+    }
+
+    @Benchmark
+    public void putExpiring() {
+        clock.millis++;
+        cache.put(keys[index++ & (LIVE - 1)], value, LIVE);
+    }
+
+    @Benchmark
+    public Object getExpiring() {
+        return cache.get(keys[index++ & (LIVE - 1)]);
+    }
+}
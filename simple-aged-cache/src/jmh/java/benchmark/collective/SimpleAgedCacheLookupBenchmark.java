@@ -0,0 +1,59 @@
+package benchmark.collective;
+
+import io.collective.SimpleAgedCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SimpleAgedCacheLookupBenchmark {
+    //Description:
+    //   measures per-operation get latency against caches holding 1K to 10M permanent entries
+    //   with hash-indexed storage the numbers should stay flat as the entry count grows
+
+    private static final int PROBES = 1 << 16; // number of pre-built lookup keys, a power of two for masking
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int entries;
+
+    SimpleAgedCache cache;
+    String[] presentKeys;
+    String[] absentKeys;
+    int index;
+
+    @Setup
+    public void setUp() {
+        cache = new SimpleAgedCache();
+        for (int i = 0; i < entries; i++) {
+            cache.put("key" + i, i, 0);
+        }
+
+        // build the probe keys up front so string concatenation is not part of the measurement
+        presentKeys = new String[PROBES];
+        absentKeys = new String[PROBES];
+        long step = Math.max(1, entries / PROBES);
+        for (int i = 0; i < PROBES; i++) {
+            presentKeys[i] = "key" + ((i * step) % entries);
+            absentKeys[i] = "missing" + i;
+        }
+    }
+
+    @Benchmark
+    public Object getHit() {
+        return cache.get(presentKeys[index++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public Object getMiss() {
+        return cache.get(absentKeys[index++ & (PROBES - 1)]);
+    }
+}
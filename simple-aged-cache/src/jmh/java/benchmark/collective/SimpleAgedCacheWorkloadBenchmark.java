@@ -0,0 +1,81 @@
+package benchmark.collective;
+
+import io.collective.SimpleAgedCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SimpleAgedCacheWorkloadBenchmark {
+    //Description:
+    //   measures throughput of read/write mixes over a fixed key space of 1K to 1M keys
+    //   a read is a get; a write replaces the key's entry with invalidate and put
+    //   keys are drawn uniformly or from a Zipfian curve, and the operation sequence is generated up front
+    //   with PERMANENT retention every key stays cached; with EXPIRING retention the manual clock moves one
+    //   millisecond per operation and entries live for four times as many milliseconds as there are keys, so
+    //   keys that are not rewritten in time expire and later reads of them miss
+
+    private static final int PROBES = 1 << 20; // length of the pre-generated operation sequence, a power of two for masking
+
+    @Param({"READ_HEAVY", "MIXED", "WRITE_HEAVY"})
+    Workload workload;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    KeyDistribution distribution;
+
+    @Param({"PERMANENT", "EXPIRING"})
+    String retention;
+
+    @Param({"1000", "100000", "1000000"})
+    int entries;
+
+    SimpleAgedCacheWriteBenchmark.ManualClock clock;
+    SimpleAgedCache cache;
+    String[] keys;
+    int[] probes;
+    boolean[] writes;
+    int retentionInMillis;
+    int tick; // clock step per operation, 0 when entries are permanent
+    Object value = "aValue";
+    int index;
+
+    @Setup
+    public void setUp() {
+        boolean expiring = retention.equals("EXPIRING");
+        retentionInMillis = expiring ? (4 * entries) : 0;
+        tick = expiring ? 1 : 0;
+
+        clock = new SimpleAgedCacheWriteBenchmark.ManualClock();
+        cache = new SimpleAgedCache(clock);
+        keys = new String[entries];
+        for (int i = 0; i < entries; i++) {
+            keys[i] = "key" + i;
+            cache.put(keys[i], value, retentionInMillis);
+        }
+
+        probes = distribution.sample(entries, PROBES, 42);
+        writes = workload.writes(PROBES, 43);
+    }
+
+    @Benchmark
+    public Object operation() {
+        clock.millis += tick;
+        int probe = index++ & (PROBES - 1);
+        String key = keys[probes[probe]];
+        if (writes[probe]) {
+            cache.invalidate(key);
+            cache.put(key, value, retentionInMillis);
+            return null;
+        }
+        return cache.get(key);
+    }
+}
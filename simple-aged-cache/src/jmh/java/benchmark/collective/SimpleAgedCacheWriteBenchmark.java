@@ -0,0 +1,89 @@
+package benchmark.collective;
+
+import io.collective.SimpleAgedCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SimpleAgedCacheWriteBenchmark {
+    //Description:
+    //   measures put and size latency against caches holding 1K to 1M live expiring entries
+    //   every operation moves a manual clock forward one millisecond and writes an entry that
+    //   expires a millisecond later, so each put also pays for expiring the previous one
+
+    private static final int PROBES = 1 << 16; // number of pre-built keys, a power of two for masking
+    private static final int LONG_RETENTION = Integer.MAX_VALUE; // outlives any benchmark run at one millisecond per op
+
+    @Param({"1000", "100000", "1000000"})
+    int entries;
+
+    ManualClock clock;
+    SimpleAgedCache cache;
+    String[] shortLivedKeys;
+    int index;
+
+    @Setup
+    public void setUp() {
+        clock = new ManualClock();
+        cache = new SimpleAgedCache(clock);
+        for (int i = 0; i < entries; i++) {
+            cache.put("key" + i, i, LONG_RETENTION);
+        }
+
+        shortLivedKeys = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            shortLivedKeys[i] = "shortLived" + i;
+        }
+    }
+
+    @Benchmark
+    public void put() {
+        clock.millis++;
+        cache.put(shortLivedKeys[index++ & (PROBES - 1)], index, 1);
+    }
+
+    @Benchmark
+    public int putAndSize() {
+        clock.millis++;
+        cache.put(shortLivedKeys[index++ & (PROBES - 1)], index, 1);
+        return cache.size();
+    }
+
+    static class ManualClock extends Clock {
+        long millis = 0;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public long millis() {
+            return millis; // the cache reads millis directly, so the benchmark clock allocates nothing either
+        }
+    }
+}
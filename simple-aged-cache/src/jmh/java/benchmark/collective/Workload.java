@@ -0,0 +1,28 @@
+package benchmark.collective;
+
+import java.util.SplittableRandom;
+
+public enum Workload {
+    //Description:
+    //   the read/write mixes the workload benchmarks run, as the share of operations that write
+
+    READ_HEAVY(0.1),
+    MIXED(0.5),
+    WRITE_HEAVY(0.9);
+
+    private final double writeRatio;
+
+    Workload(double writeRatio) {
+        this.writeRatio = writeRatio;
+    }
+
+    boolean[] writes(int sampleCount, long seed) {
+        // a fixed sequence of read (false) and write (true) operations with this mix
+        SplittableRandom random = new SplittableRandom(seed);
+        boolean[] writes = new boolean[sampleCount];
+        for (int i = 0; i < sampleCount; i++) {
+            writes[i] = random.nextDouble() < writeRatio;
+        }
+        return writes;
+    }
+}
@@ -0,0 +1,59 @@
+package benchmark.collective
+
+import io.collective.SuspendingAgedKache
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+open class SuspendingAgedKacheBenchmark {
+    //Description:
+    //   measures the time for 100K concurrent coroutines to getOrPut against a fresh cache on Dispatchers.Default
+    //   the loader suspends for a millisecond like a remote call, so the score shows how well misses on the
+    //   same key are coalesced: with 1K distinct keys most coroutines wait on another's load, with 100K
+    //   every coroutine loads its own key
+
+    private val coroutines = 100_000
+
+    @Param("1000", "100000")
+    @JvmField
+    var distinctKeys = 0
+
+    private lateinit var cache: SuspendingAgedKache
+    private lateinit var keys: Array<String>
+
+    @Setup(Level.Trial)
+    fun buildKeys() {
+        keys = Array(distinctKeys) { "key$it" }
+    }
+
+    @Setup(Level.Invocation)
+    fun emptyCache() {
+        cache = SuspendingAgedKache()
+    }
+
+    @Benchmark
+    fun getOrPut() = runBlocking<Unit>(Dispatchers.Default) {
+        repeat(coroutines) { i ->
+            launch {
+                cache.getOrPut(keys[i % distinctKeys], 0) { key ->
+                    delay(1)
+                    key
+                }
+            }
+        }
+    }
+}
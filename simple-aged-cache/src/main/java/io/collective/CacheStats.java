@@ -0,0 +1,110 @@
+package io.collective;
+
+public final class CacheStats {
+    //Description:
+    //   an immutable snapshot of a StatsRecorder
+    //   counters are read one after another, so under concurrent use a snapshot is close to but not
+    //   exactly a single point in time; latencies are bucketed to powers of two
+
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long expirationCount;
+    private final long evictionCount;
+    private final long resizeCount;
+    private final long expiryNanos;
+    private final long[] getLatencies;
+    private final long[] putLatencies;
+    private final long getNanos;
+    private final long putNanos;
+
+    CacheStats(long hitCount, long missCount, long putCount, long expirationCount, long evictionCount,
+               long resizeCount, long expiryNanos, long[] getLatencies, long getNanos,
+               long[] putLatencies, long putNanos) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.expirationCount = expirationCount;
+        this.evictionCount = evictionCount;
+        this.resizeCount = resizeCount;
+        this.expiryNanos = expiryNanos;
+        this.getLatencies = getLatencies;
+        this.getNanos = getNanos;
+        this.putLatencies = putLatencies;
+        this.putNanos = putNanos;
+    }
+
+    public long hitCount() {
+        // the number of lookups that found a live entry
+        return hitCount;
+    }
+
+    public long missCount() {
+        // the number of lookups that found no entry or an expired one
+        return missCount;
+    }
+
+    public double hitRate() {
+        // hits over lookups, 1.0 when there have been no lookups
+        long requests = hitCount + missCount;
+        return (requests == 0) ? 1.0 : ((double) hitCount / requests);
+    }
+
+    public long putCount() {
+        // the number of entries put, one per key for putAll
+        return putCount;
+    }
+
+    public long expirationCount() {
+        // the number of entries removed because their deadline passed
+        return expirationCount;
+    }
+
+    public long evictionCount() {
+        // the number of entries dropped by the eviction policy to stay within the maximum size
+        return evictionCount;
+    }
+
+    public long resizeCount() {
+        // the number of times the backing arrays were grown
+        return resizeCount;
+    }
+
+    public long expiryNanos() {
+        // the total time spent advancing the expiry wheel and removing expired entries
+        return expiryNanos;
+    }
+
+    public long getLatencyNanos(double quantile) {
+        // the given percentile of single-key get latency, e.g. 0.99 for p99
+        return LatencyHistogram.percentile(getLatencies, quantile);
+    }
+
+    public long putLatencyNanos(double quantile) {
+        // the given percentile of single-key put latency
+        return LatencyHistogram.percentile(putLatencies, quantile);
+    }
+
+    public double averageGetNanos() {
+        return average(getLatencies, getNanos);
+    }
+
+    public double averagePutNanos() {
+        return average(putLatencies, putNanos);
+    }
+
+    private static double average(long[] latencies, long totalNanos) {
+        long count = 0;
+        for (long bucket : latencies) {
+            count += bucket;
+        }
+        return (count == 0) ? 0 : ((double) totalNanos / count);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hitCount=" + hitCount + ", missCount=" + missCount + ", putCount=" + putCount
+                + ", expirationCount=" + expirationCount + ", evictionCount=" + evictionCount
+                + ", resizeCount=" + resizeCount + ", expiryNanos=" + expiryNanos + "}";
+    }
+}
@@ -0,0 +1,31 @@
+package io.collective;
+
+public interface CacheStatsMXBean {
+    //Description:
+    //   the JMX view of a StatsRecorder, registered with StatsRecorder.registerMBean
+    //   every attribute is read live from the recorder's counters
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getPutCount();
+
+    long getExpirationCount();
+
+    long getEvictionCount();
+
+    long getResizeCount();
+
+    long getExpiryNanos();
+
+    long getGetLatencyP50Nanos();
+
+    long getGetLatencyP99Nanos();
+
+    long getPutLatencyP50Nanos();
+
+    long getPutLatencyP99Nanos();
+}
@@ -0,0 +1,80 @@
+package io.collective;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public final class CachedTicker implements Ticker, AutoCloseable {
+    //Description:
+    //   a ticker whose time is read from a clock by a background thread and published in a volatile field
+    //   millis is a single volatile read, so expiry checks on the hot path never call into the clock;
+    //   the value lags the clock by at most the resolution plus however late the thread is scheduled
+    //   the thread is a daemon and stops on close; Ticker.cached shares one instance over the system clock
+
+    private static final class Shared {
+        // holds the shared ticker, so its thread starts when Ticker.cached is first called rather than
+        //    whenever the class loads
+        static final CachedTicker SYSTEM = new CachedTicker(Clock.systemUTC(), 1, true);
+    }
+
+    private final Clock source;
+    private final long resolutionNanos;
+    private final Thread updater;
+    private volatile long millis;
+    private volatile boolean running = true;
+    private final boolean shared; // the instance Ticker.cached hands out, never stopped
+
+    // constructor to accept the clock to cache and how often it is read
+    public CachedTicker(Clock source, long resolutionMillis) {
+        this(source, resolutionMillis, false);
+    }
+
+    private CachedTicker(Clock source, long resolutionMillis, boolean shared) {
+        if (source == null) {
+            throw new IllegalArgumentException("source cannot be null");
+        }
+        if (resolutionMillis <= 0) {
+            throw new IllegalArgumentException("resolutionMillis must be positive");
+        }
+        this.source = source;
+        this.shared = shared;
+        this.resolutionNanos = TimeUnit.MILLISECONDS.toNanos(resolutionMillis);
+        this.millis = source.millis(); // readers see a current time before the thread first runs
+
+        this.updater = new Thread(this::run, "cached-ticker");
+        updater.setDaemon(true);
+        updater.start();
+    }
+
+    // overloaded constructor caching the system clock at millisecond resolution
+    public CachedTicker() {
+        this(Clock.systemUTC(), 1);
+    }
+
+    static CachedTicker system() {
+        // the shared ticker over the system clock, started on first use
+        return Shared.SYSTEM;
+    }
+
+    private void run() {
+        while (running) {
+            millis = source.millis();
+            LockSupport.parkNanos(this, resolutionNanos);
+        }
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public void close() {
+        // stop the background thread; millis keeps answering the last time it published
+        if (shared) {
+            return; // the shared ticker may be in use by any cache in the JVM
+        }
+        running = false;
+        LockSupport.unpark(updater);
+    }
+}
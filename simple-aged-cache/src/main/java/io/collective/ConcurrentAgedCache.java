@@ -0,0 +1,357 @@
+package io.collective;
+
+import java.time.Clock;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class ConcurrentAgedCache implements AutoCloseable {
+    //Description:
+    //   a thread-safe aged cache that can be shared across request threads
+    //   keys are spread over a power-of-two number of stripes, each stripe being a SimpleAgedCache
+    //   guarded by its own read-write lock
+    //   get takes the shared side of the lock and never writes, so readers never block each other;
+    //   put takes the exclusive side of one stripe only, so writers on different stripes run in parallel
+    //   given a scheduled executor, expiry cleanup moves off the callers' threads: put and size no longer
+    //   clean, and a periodic task removes expired entries stripe by stripe in batches of MAINTENANCE_BATCH,
+    //   taking each stripe's write lock once per batch; size then reads a running count without locking
+
+    private final SimpleAgedCache[] stripes;
+    private final ReentrantReadWriteLock[] locks;
+    private final int stripeMask;
+    private final StatsRecorder stats; // null when stats are disabled; get records here since peek records nothing
+    static final int MAINTENANCE_BATCH = 1024; // the most expired entries removed per write lock hold
+    private final LongAdder entryCount; // entries across all stripes, kept only with background maintenance
+    private final ScheduledFuture<?> maintenanceTask; // null without background maintenance
+
+    // constructor to accept ticker, stripe count and stats recorder parameters
+    //    every stripe reads the same ticker and records into the same recorder; a null recorder disables stats
+    public ConcurrentAgedCache(Ticker ticker, int concurrencyLevel, StatsRecorder stats) {
+        this(ticker, concurrencyLevel, stats, null, 0);
+    }
+
+    // constructor to accept ticker, stripe count, stats recorder and background maintenance parameters
+    //    a null executor keeps cleanup inline; otherwise maintenance runs on it every maintenanceIntervalMillis
+    //    until close, and the executor stays owned by the caller
+    public ConcurrentAgedCache(Ticker ticker, int concurrencyLevel, StatsRecorder stats,
+                               ScheduledExecutorService maintenanceExecutor, long maintenanceIntervalMillis) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrencyLevel must be positive");
+        }
+        if ((maintenanceExecutor != null) && (maintenanceIntervalMillis <= 0)) {
+            throw new IllegalArgumentException("maintenanceIntervalMillis must be positive");
+        }
+        // round the stripe count up to a power of two so a stripe can be picked with a mask
+        int stripeCount = Integer.highestOneBit(Math.min(concurrencyLevel, 1 << 16) * 2 - 1);
+
+        this.stripes = new SimpleAgedCache[stripeCount];
+        this.locks = new ReentrantReadWriteLock[stripeCount];
+        this.stripeMask = stripeCount - 1;
+        this.stats = stats;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new SimpleAgedCache(ticker, SimpleAgedCache.UNBOUNDED, EvictionPolicy.LRU, null, stats);
+            locks[i] = new ReentrantReadWriteLock();
+            if (maintenanceExecutor != null) {
+                stripes[i].deferMaintenance();
+            }
+        }
+        this.entryCount = (maintenanceExecutor == null) ? null : new LongAdder();
+        this.maintenanceTask = (maintenanceExecutor == null) ? null : maintenanceExecutor.scheduleWithFixedDelay(
+                this::maintain, maintenanceIntervalMillis, maintenanceIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // overloaded constructor to accept ticker, stripe count and background maintenance parameters
+    public ConcurrentAgedCache(Ticker ticker, int concurrencyLevel,
+                               ScheduledExecutorService maintenanceExecutor, long maintenanceIntervalMillis) {
+        this(ticker, concurrencyLevel, null, maintenanceExecutor, maintenanceIntervalMillis);
+    }
+
+    // overloaded constructor to accept ticker and stripe count parameters
+    public ConcurrentAgedCache(Ticker ticker, int concurrencyLevel) {
+        this(ticker, concurrencyLevel, null);
+    }
+
+    // overloaded constructor to accept clock and stripe count parameters
+    public ConcurrentAgedCache(Clock cacheClock, int concurrencyLevel) {
+        this(Ticker.of(cacheClock), concurrencyLevel);
+    }
+
+    // overloaded constructor sizing the stripes to the machine
+    public ConcurrentAgedCache(Ticker ticker) {
+        this(ticker, 4 * Runtime.getRuntime().availableProcessors()); // several stripes per core keeps collisions rare
+    }
+
+    // overloaded constructor sizing the stripes to the machine
+    public ConcurrentAgedCache(Clock cacheClock) {
+        this(Ticker.of(cacheClock));
+    }
+
+    // overloaded constructor for default value handling
+    public ConcurrentAgedCache() {
+        this(Clock.systemUTC());
+    }
+
+    private int stripeFor(String key) {
+        // the low bits of the spread hash pick the slot inside a stripe, so the stripe comes from the high bits
+        return (SimpleAgedCache.spread(key) >>> 16) & stripeMask;
+    }
+
+    public void put(String key, Object value, int retentionInMillis) {
+        //Description:
+        //   a class method for inserting a key-value pair and length of retention
+        //   only the stripe owning the key is locked
+        //Parameters:
+        //   key | string | the string for index-retrieval of the stored value
+        //   value | any? | the stored value, can be arbitrary type
+        //   retentionInMillis | Int | retention age in milliseconds, 0 for a permanent entry
+        //Returns:
+        //   void
+        if (key == null) {
+            throw new IllegalArgumentException("key cannot be null");
+        }
+        int stripe = stripeFor(key);
+        ReentrantReadWriteLock.WriteLock lock = locks[stripe].writeLock();
+        lock.lock();
+        int before = this.countOf(stripe);
+        try {
+            stripes[stripe].put(key, value, retentionInMillis);
+        } finally {
+            this.countChange(stripe, before); // also when the stripe threw after removing an expired entry
+            lock.unlock();
+        }
+    }
+
+    private int countOf(int stripe) {
+        // a stripe's entry count for countChange; with background maintenance a stripe's size is a field read
+        return (entryCount == null) ? 0 : stripes[stripe].size();
+    }
+
+    private void countChange(int stripe, int before) {
+        // carry a stripe's change in size into the running count; called under the stripe's write lock
+        if (entryCount != null) {
+            entryCount.add(stripes[stripe].size() - before);
+        }
+    }
+
+    void replace(String key, Object value, int retentionInMillis) {
+        //Description:
+        //   a method to store a value whether or not the key is already present, in one step under the stripe lock
+        //Parameters:
+        //   key | string | the string for index-retrieval of the stored value
+        //   value | any? | the stored value, can be arbitrary type
+        //   retentionInMillis | Int | retention age in milliseconds, 0 for a permanent entry
+        //Returns:
+        //   void
+        if (key == null) {
+            throw new IllegalArgumentException("key cannot be null");
+        }
+        int stripe = stripeFor(key);
+        ReentrantReadWriteLock.WriteLock lock = locks[stripe].writeLock();
+        lock.lock();
+        int before = this.countOf(stripe);
+        try {
+            stripes[stripe].remove(key, RemovalCause.REPLACED);
+            stripes[stripe].put(key, value, retentionInMillis);
+        } finally {
+            this.countChange(stripe, before);
+            lock.unlock();
+        }
+    }
+
+    public boolean invalidate(String key) {
+        //Description:
+        //   a class method to drop the entry for a key, live or expired, under its stripe lock
+        //Parameters:
+        //   key | String | the string for index-retrieval of the stored value
+        //Returns:
+        //   true when an entry was removed, false when there was none
+        if (key == null) {
+            return false;
+        }
+        int stripe = stripeFor(key);
+        ReentrantReadWriteLock.WriteLock lock = locks[stripe].writeLock();
+        lock.lock();
+        int before = this.countOf(stripe);
+        try {
+            return stripes[stripe].invalidate(key);
+        } finally {
+            this.countChange(stripe, before);
+            lock.unlock();
+        }
+    }
+
+    public void addRemovalListener(RemovalListener listener, Executor executor) {
+        //Description:
+        //   a class method to register a listener for entries leaving any stripe
+        //   see SimpleAgedCache.addRemovalListener; expired entries are reported when their stripe cleans
+        //   them up on a later put or size, or from the maintenance task, since reads never write
+        //Parameters:
+        //   listener | RemovalListener | told the key, value and cause of each removal
+        //   executor | Executor | runs the listener
+        //Returns:
+        //   void
+        if ((listener == null) || (executor == null)) {
+            throw new IllegalArgumentException("listener and executor cannot be null");
+        }
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            ReentrantReadWriteLock.WriteLock lock = locks[stripe].writeLock();
+            lock.lock();
+            try {
+                stripes[stripe].addRemovalListener(listener, executor);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    long expiresAt(String key) {
+        // the deadline of the entry for a key as reported by SimpleAgedCache.expiresAt
+        int stripe = stripeFor(key);
+        ReentrantReadWriteLock.ReadLock lock = locks[stripe].readLock();
+        lock.lock();
+        try {
+            return stripes[stripe].expiresAt(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Object get(String key) {
+        //Description:
+        //   a class method that returns a value based on given key
+        //   expired entries read as absent and are removed by a later put or size on their stripe,
+        //   or by the maintenance task when there is one
+        //Parameters:
+        //   key | String | the string for index-retrieval of the stored value
+        //Returns:
+        //   value | Any? | the stored value for the key, null when absent or expired
+        if (key == null) {
+            return null;
+        }
+        if (stats == null) {
+            return this.peek(key);
+        }
+        long start = System.nanoTime();
+        Object value = this.peek(key);
+        stats.recordGet(value != null, System.nanoTime() - start);
+        return value;
+    }
+
+    private Object peek(String key) {
+        // read the key's stripe under its shared lock
+        int stripe = stripeFor(key);
+        ReentrantReadWriteLock.ReadLock lock = locks[stripe].readLock();
+        lock.lock();
+        try {
+            return stripes[stripe].peek(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        //Description:
+        //   a class method that counts the live entries across all stripes
+        //   stripes are visited one at a time, so under concurrent writes the count is a
+        //   point-in-time view of each stripe rather than of the whole cache
+        //   with background maintenance it reads the running count instead, in O(1) and without locking;
+        //   that count includes expired entries the maintenance task has not reached yet
+        //Parameters:
+        //   N/A
+        //Returns:
+        //   the size of the cache as Int
+        if (entryCount != null) {
+            return (int) entryCount.sum();
+        }
+        int size = 0;
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            ReentrantReadWriteLock.WriteLock lock = locks[stripe].writeLock();
+            lock.lock();
+            try {
+                size += stripes[stripe].size(); // size also clears the stripe's expired entries
+            } finally {
+                lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public int exactSize() {
+        //Description:
+        //   a class method that counts only live entries, sweeping every stripe's expired entries first
+        //   costs a full cleanup of each stripe under its write lock; size is enough for most callers
+        //Parameters:
+        //   N/A
+        //Returns:
+        //   the number of live entries as Int
+        int size = 0;
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            ReentrantReadWriteLock.WriteLock lock = locks[stripe].writeLock();
+            lock.lock();
+            int before = this.countOf(stripe);
+            try {
+                size += stripes[stripe].exactSize();
+            } finally {
+                this.countChange(stripe, before);
+                lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    void maintain() {
+        //Description:
+        //   the background maintenance task: removes every stripe's expired entries in bounded batches
+        //   the write lock is released between batches, so a put waits for at most one batch
+        //   a failure is reported to the thread's uncaught exception handler rather than thrown, since a
+        //   periodic task that throws is never run again
+        //Parameters:
+        //   N/A
+        //Returns:
+        //   void
+        try {
+            this.maintainStripes();
+        } catch (RuntimeException | Error failure) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, failure);
+        }
+    }
+
+    private void maintainStripes() {
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            boolean more = true;
+            while (more) {
+                ReentrantReadWriteLock.WriteLock lock = locks[stripe].writeLock();
+                lock.lock();
+                int before = this.countOf(stripe);
+                try {
+                    more = stripes[stripe].maintain(MAINTENANCE_BATCH);
+                } finally {
+                    this.countChange(stripe, before);
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        // stop background maintenance; the cache stays usable but expired entries are no longer removed
+        if (maintenanceTask != null) {
+            maintenanceTask.cancel(false);
+        }
+    }
+
+    public boolean isEmpty() {
+        //Description:
+        //   a class method that checks if the cache is empty
+        //Parameters:
+        //   N/A
+        //Returns:
+        //   true/false based on if length of cache is/is not 0; Boolean
+        return this.size() == 0;
+    }
+}
@@ -0,0 +1,432 @@
+package io.collective;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+final class DiskTier implements AutoCloseable {
+    //Description:
+    //   the disk tier behind TieredAgedCache: an append-only log of memory-mapped segment files with an index
+    //   that stays on heap
+    //   every record is
+    //      long deadline | int key length | int value length | key as UTF-8 | value as encoded by a ValueCodec
+    //   and is appended to the active segment; a segment that is full is sealed and a fresh one mapped
+    //   the index is an open-addressing table of key hashes and record locations (segment index in the high
+    //   half, offset in the low half), 12 bytes per entry; keys are not kept on heap and a probe compares the
+    //   key against the record in the mapped file
+    //   a removed or overwritten record leaves dead bytes behind; compact rewrites the live records of a
+    //   sealed segment that is mostly dead, or drops it outright once every record in it has expired, and
+    //   deletes the file
+    //   methods are synchronized so compaction can run on its own thread; the tier does not outlive its
+    //   process, and keeps its files in a subdirectory of its own, created in the directory it is given and
+    //   deleted on close, so nothing else in that directory is touched
+    //   a segment's mapping is dropped before its file is deleted; where a file cannot be deleted while a
+    //   collected-but-not-yet-unmapped buffer still holds it, as on Windows, the delete is retried when the
+    //   next segment opens, on compaction and on close, and segment file names are never reused
+
+    static final int DEFAULT_SEGMENT_BYTES = 64 << 20;
+    private static final int RECORD_HEADER_BYTES = 8 + 4 + 4; // deadline and the two lengths
+    private static final int INITIAL_INDEX_CAPACITY = 16;
+    private static final long EMPTY = -1; // an unused index slot
+    private static final String DIRECTORY_PREFIX = "disk-tier-";
+
+    static final class Entry {
+        final byte[] value;
+        final long deadline;
+
+        Entry(byte[] value, long deadline) {
+            this.value = value;
+            this.deadline = deadline;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final Ticker ticker;
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0]; // null for a released segment index
+    private Path[] segmentFiles = new Path[0]; // each mapped segment's file
+    private long nextFile = 0; // the number in the next segment file's name
+    private Path[] undeleted = new Path[0]; // files of released segments whose delete failed
+    private int undeletedCount = 0;
+    private int[] segmentEnds = new int[0]; // bytes appended to each segment
+    private int[] liveBytes = new int[0]; // bytes of each segment still referenced by the index
+    private long[] maxDeadlines = new long[0]; // latest deadline appended to each segment
+    private int[] freeSegments = new int[0]; // stack of segment indices whose files were deleted
+    private int freeSegmentCount = 0;
+    private int segmentCount = 0; // first segment index that has never been handed out
+    private int activeSegment = -1;
+    private int[] hashes = new int[INITIAL_INDEX_CAPACITY];
+    private long[] locations = new long[INITIAL_INDEX_CAPACITY];
+    private int count = 0;
+
+    DiskTier(Path directory, int segmentBytes, Ticker ticker) throws IOException {
+        if (segmentBytes <= RECORD_HEADER_BYTES) {
+            throw new IllegalArgumentException("segmentBytes must leave room for a record");
+        }
+        this.segmentBytes = segmentBytes;
+        this.ticker = ticker;
+        Arrays.fill(locations, EMPTY);
+
+        Files.createDirectories(directory);
+        this.directory = Files.createTempDirectory(directory, DIRECTORY_PREFIX);
+    }
+
+    synchronized boolean put(String key, byte[] value, long deadline) throws IOException {
+        //Description:
+        //   a method to append an entry, replacing any record the key already has
+        //   entries already past their deadline, and records larger than a segment, are not kept
+        //Parameters:
+        //   key | String | the entry's key
+        //   value | byte[] | the encoded value
+        //   deadline | long | the epoch millisecond at which the entry expires, Long.MAX_VALUE for never
+        //Returns:
+        //   true when the entry was written
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = SimpleAgedCache.spread(key);
+        int existing = slotOf(hash, keyBytes);
+        if (existing != -1) {
+            removeSlot(existing);
+        }
+        long size = (long) RECORD_HEADER_BYTES + keyBytes.length + value.length;
+        if ((size > segmentBytes) || (deadline <= ticker.millis())) {
+            return false;
+        }
+
+        long location = append(deadline, keyBytes, value, (int) size);
+        if ((count + 1) * 2 > locations.length) {
+            growIndex();
+        }
+        link(hash, location);
+        count++;
+        return true;
+    }
+
+    synchronized Entry take(String key) {
+        //Description:
+        //   a method to remove an entry and hand it back, as when it is promoted to the memory tier
+        //Parameters:
+        //   key | String | the entry's key
+        //Returns:
+        //   the entry's value and deadline, null when the key is absent or its entry has expired
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int slot = slotOf(SimpleAgedCache.spread(key), keyBytes);
+        if (slot == -1) {
+            return null;
+        }
+        MappedByteBuffer segment = segments[(int) (locations[slot] >>> 32)];
+        int offset = (int) locations[slot];
+        long deadline = segment.getLong(offset);
+        Entry entry = null;
+        if (deadline > ticker.millis()) {
+            byte[] value = new byte[segment.getInt(offset + 12)];
+            segment.get(offset + RECORD_HEADER_BYTES + keyBytes.length, value);
+            entry = new Entry(value, deadline);
+        }
+        removeSlot(slot);
+        return entry;
+    }
+
+    synchronized boolean contains(String key) {
+        // whether the key has an entry that has not expired
+        int slot = slotOf(SimpleAgedCache.spread(key), key.getBytes(StandardCharsets.UTF_8));
+        return (slot != -1)
+                && (segments[(int) (locations[slot] >>> 32)].getLong((int) locations[slot]) > ticker.millis());
+    }
+
+    synchronized boolean remove(String key) {
+        // drop the entry for a key, live or expired
+        int slot = slotOf(SimpleAgedCache.spread(key), key.getBytes(StandardCharsets.UTF_8));
+        if (slot == -1) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    synchronized int size() {
+        // the number of indexed entries, including expired ones that have not been read or compacted away yet
+        return count;
+    }
+
+    synchronized long diskBytes() {
+        // the bytes of segment files currently mapped
+        long mapped = 0;
+        for (int i = 0; i < segmentCount; i++) {
+            if (segments[i] != null) {
+                mapped += segmentBytes;
+            }
+        }
+        return mapped;
+    }
+
+    int compact() throws IOException {
+        //Description:
+        //   a method to reclaim the space of sealed segments
+        //   a segment whose records have all expired is deleted along with their index entries; one that is at
+        //   least half dead has its live records appended to the active segment before it is deleted
+        //   the lock is taken once per segment, so readers and writers are held up by at most one rewrite
+        //Parameters:
+        //   N/A
+        //Returns:
+        //   the number of segments deleted as Int
+        int reclaimed = 0;
+        synchronized (this) {
+            deleteUndeleted();
+        }
+        for (int i = 0; i < segmentCountSnapshot(); i++) {
+            synchronized (this) {
+                if ((segments[i] == null) || (i == activeSegment)) {
+                    continue;
+                }
+                long now = ticker.millis();
+                if ((maxDeadlines[i] <= now) || (liveBytes[i] * 2L <= segmentEnds[i])) {
+                    compactSegment(i, now);
+                    reclaimed++;
+                }
+            }
+        }
+        return reclaimed;
+    }
+
+    private synchronized int segmentCountSnapshot() {
+        return segmentCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        // delete every segment file and the tier's directory; the tier is empty afterwards
+        //    files that cannot be deleted yet are left behind, along with the directory holding them
+        for (int i = 0; i < segmentCount; i++) {
+            if (segments[i] != null) {
+                releaseSegment(i);
+            }
+        }
+        activeSegment = -1;
+        Arrays.fill(locations, EMPTY);
+        count = 0;
+        deleteUndeleted();
+        if (undeletedCount == 0) {
+            try {
+                Files.deleteIfExists(directory);
+            } catch (IOException notEmpty) {
+                // something else was put in the directory; leave it there
+            }
+        }
+    }
+
+    private void compactSegment(int segment, long now) throws IOException {
+        // move the live, unexpired records of a segment to the active one and delete it
+        MappedByteBuffer source = segments[segment];
+        int offset = 0;
+        while (offset < segmentEnds[segment]) {
+            long deadline = source.getLong(offset);
+            int keyLength = source.getInt(offset + 8);
+            int valueLength = source.getInt(offset + 12);
+            int size = RECORD_HEADER_BYTES + keyLength + valueLength;
+            long location = ((long) segment << 32) | offset;
+
+            byte[] keyBytes = new byte[keyLength];
+            source.get(offset + RECORD_HEADER_BYTES, keyBytes);
+            int slot = slotAt(SimpleAgedCache.spread(new String(keyBytes, StandardCharsets.UTF_8)), location);
+            if (slot != -1) {
+                if (deadline <= now) {
+                    removeSlot(slot);
+                } else {
+                    byte[] value = new byte[valueLength];
+                    source.get(offset + RECORD_HEADER_BYTES + keyLength, value);
+                    liveBytes[segment] -= size;
+                    locations[slot] = append(deadline, keyBytes, value, size);
+                }
+            }
+            offset += size;
+        }
+        releaseSegment(segment);
+    }
+
+    private long append(long deadline, byte[] keyBytes, byte[] value, int size) throws IOException {
+        // write a record at the end of the active segment, sealing it for a fresh one when it is full
+        if ((activeSegment == -1) || (segmentEnds[activeSegment] + size > segmentBytes)) {
+            activeSegment = openSegment();
+        }
+        MappedByteBuffer segment = segments[activeSegment];
+        int offset = segmentEnds[activeSegment];
+        segment.putLong(offset, deadline);
+        segment.putInt(offset + 8, keyBytes.length);
+        segment.putInt(offset + 12, value.length);
+        segment.put(offset + RECORD_HEADER_BYTES, keyBytes);
+        segment.put(offset + RECORD_HEADER_BYTES + keyBytes.length, value);
+        segmentEnds[activeSegment] += size;
+        liveBytes[activeSegment] += size;
+        maxDeadlines[activeSegment] = Math.max(maxDeadlines[activeSegment], deadline);
+        return ((long) activeSegment << 32) | offset;
+    }
+
+    private int openSegment() throws IOException {
+        // map a fresh segment file, reusing the index of a deleted one when there is one
+        int segment;
+        if (freeSegmentCount > 0) {
+            segment = freeSegments[--freeSegmentCount];
+        } else {
+            if (segmentCount == segments.length) {
+                int capacity = Math.max(4, segments.length * 2);
+                segments = Arrays.copyOf(segments, capacity);
+                segmentFiles = Arrays.copyOf(segmentFiles, capacity);
+                segmentEnds = Arrays.copyOf(segmentEnds, capacity);
+                liveBytes = Arrays.copyOf(liveBytes, capacity);
+                maxDeadlines = Arrays.copyOf(maxDeadlines, capacity);
+                freeSegments = Arrays.copyOf(freeSegments, capacity);
+            }
+            segment = segmentCount++;
+        }
+        deleteUndeleted();
+        Path file = directory.resolve(String.format("segment-%08d.log", nextFile++));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segments[segment] = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes); // the mapping outlives the channel
+        }
+        segmentFiles[segment] = file;
+        segmentEnds[segment] = 0;
+        liveBytes[segment] = 0;
+        maxDeadlines[segment] = Long.MIN_VALUE;
+        return segment;
+    }
+
+    private void releaseSegment(int segment) {
+        // drop a segment's mapping and delete its file; the pages are returned once the mapping is collected
+        Path file = segmentFiles[segment];
+        segments[segment] = null;
+        segmentFiles[segment] = null;
+        freeSegments[freeSegmentCount++] = segment;
+        if (!delete(file)) {
+            if (undeletedCount == undeleted.length) {
+                undeleted = Arrays.copyOf(undeleted, Math.max(4, undeleted.length * 2));
+            }
+            undeleted[undeletedCount++] = file;
+        }
+    }
+
+    private void deleteUndeleted() {
+        // retry the deletes that failed, keeping the files that still cannot be deleted
+        int kept = 0;
+        for (int i = 0; i < undeletedCount; i++) {
+            if (!delete(undeleted[i])) {
+                undeleted[kept++] = undeleted[i];
+            }
+        }
+        Arrays.fill(undeleted, kept, undeletedCount, null);
+        undeletedCount = kept;
+    }
+
+    private static boolean delete(Path file) {
+        // delete a file, reporting false instead of failing when the system refuses
+        try {
+            Files.deleteIfExists(file);
+            return true;
+        } catch (IOException refused) {
+            return false;
+        }
+    }
+
+    private int slotOf(int hash, byte[] keyBytes) {
+        //Description:
+        //   a method to find the index slot of a key using linear probing
+        //Parameters:
+        //   hash | int | the spread hash of the key
+        //   keyBytes | byte[] | the key as UTF-8, compared against the key in each candidate record
+        //Returns:
+        //   the slot index when found
+        //   -1 when the key is not in the index
+        int mask = locations.length - 1;
+        int slot = hash & mask;
+        while (locations[slot] != EMPTY) {
+            if ((hashes[slot] == hash) && keyMatches(locations[slot], keyBytes)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slotAt(int hash, long location) {
+        // find the index slot pointing at a record, -1 when the record is dead
+        int mask = locations.length - 1;
+        int slot = hash & mask;
+        while (locations[slot] != EMPTY) {
+            if (locations[slot] == location) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean keyMatches(long location, byte[] keyBytes) {
+        MappedByteBuffer segment = segments[(int) (location >>> 32)];
+        int offset = (int) location;
+        if (segment.getInt(offset + 8) != keyBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (segment.get(offset + RECORD_HEADER_BYTES + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void link(int hash, long location) {
+        int mask = locations.length - 1;
+        int slot = hash & mask;
+        while (locations[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        locations[slot] = location;
+    }
+
+    private void growIndex() {
+        // double the index and relink every entry
+        int[] oldHashes = hashes;
+        long[] oldLocations = locations;
+        hashes = new int[oldHashes.length * 2];
+        locations = new long[oldLocations.length * 2];
+        Arrays.fill(locations, EMPTY);
+        for (int slot = 0; slot < oldLocations.length; slot++) {
+            if (oldLocations[slot] != EMPTY) {
+                link(oldHashes[slot], oldLocations[slot]);
+            }
+        }
+    }
+
+    private void removeSlot(int slot) {
+        // mark the record dead and empty its index slot with backward-shift deletion, as in SimpleAgedCache
+        long location = locations[slot];
+        MappedByteBuffer segment = segments[(int) (location >>> 32)];
+        int offset = (int) location;
+        liveBytes[(int) (location >>> 32)] -= RECORD_HEADER_BYTES + segment.getInt(offset + 8) + segment.getInt(offset + 12);
+
+        int mask = locations.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (locations[next] != EMPTY) {
+            int home = hashes[next] & mask;
+            // the entry at next may move into the hole only if its home slot is not between the hole and next
+            boolean movable = (hole <= next)
+                    ? ((home <= hole) || (home > next))
+                    : ((home <= hole) && (home > next));
+            if (movable) {
+                hashes[hole] = hashes[next];
+                locations[hole] = locations[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        locations[hole] = EMPTY;
+        count--;
+    }
+}
@@ -0,0 +1,111 @@
+package io.collective;
+
+import java.util.Arrays;
+
+final class EntryLists {
+    //Description:
+    //   a fixed number of doubly linked lists of cache entry indices, threaded through shared next/prev arrays
+    //   an entry belongs to at most one list at a time, so the eviction policies can keep their
+    //   recency and frequency orders without allocating a node per entry
+
+    static final int NONE = -1;
+
+    private final int[] heads;
+    private final int[] tails;
+    private final int[] sizes;
+    private int[] next = new int[0];
+    private int[] prev = new int[0];
+    private int[] listOf = new int[0]; // the list holding each entry, NONE when unlinked
+
+    EntryLists(int lists) {
+        heads = new int[lists];
+        tails = new int[lists];
+        sizes = new int[lists];
+        Arrays.fill(heads, NONE);
+        Arrays.fill(tails, NONE);
+    }
+
+    void resize(int capacity) {
+        //Description:
+        //   a method to grow the per-entry arrays alongside the cache's entry arrays
+        //Parameters:
+        //   capacity | int | the new entry capacity of the cache
+        //Returns:
+        //   void
+        int oldCapacity = next.length;
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        listOf = Arrays.copyOf(listOf, capacity);
+        Arrays.fill(listOf, oldCapacity, capacity, NONE);
+    }
+
+    int first(int list) {
+        return heads[list];
+    }
+
+    int next(int entry) {
+        return next[entry];
+    }
+
+    int size(int list) {
+        return sizes[list];
+    }
+
+    int listOf(int entry) {
+        return listOf[entry];
+    }
+
+    void addLast(int list, int entry) {
+        //Description:
+        //   a method to append an unlinked entry to the tail of a list
+        //Parameters:
+        //   list | int | the list index
+        //   entry | int | the cache entry index
+        //Returns:
+        //   void
+        int tail = tails[list];
+        prev[entry] = tail;
+        next[entry] = NONE;
+        if (tail == NONE) {
+            heads[list] = entry;
+        } else {
+            next[tail] = entry;
+        }
+        tails[list] = entry;
+        listOf[entry] = list;
+        sizes[list]++;
+    }
+
+    void moveToLast(int list, int entry) {
+        // unlink the entry from wherever it is and append it to the tail of the given list
+        unlink(entry);
+        addLast(list, entry);
+    }
+
+    void unlink(int entry) {
+        //Description:
+        //   a method to remove an entry from its list; unlinked entries are ignored
+        //Parameters:
+        //   entry | int | the cache entry index
+        //Returns:
+        //   void
+        int list = listOf[entry];
+        if (list == NONE) {
+            return;
+        }
+        int before = prev[entry];
+        int after = next[entry];
+        if (before == NONE) {
+            heads[list] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            tails[list] = before;
+        } else {
+            prev[after] = before;
+        }
+        listOf[entry] = NONE;
+        sizes[list]--;
+    }
+}
@@ -0,0 +1,31 @@
+package io.collective;
+
+public enum EvictionPolicy {
+    //Description:
+    //   the eviction policies available to a size-bounded SimpleAgedCache
+    //   LRU evicts the least recently used entry
+    //   LFU evicts the least frequently used entry, oldest first among equal counts
+    //   TINY_LFU is W-TinyLFU: a small LRU admission window in front of a segmented LRU main space,
+    //      where an entry leaving the window only displaces a main entry it has been seen more often than
+
+    LRU {
+        @Override
+        Evictor create(int maximumSize) {
+            return new LruEvictor();
+        }
+    },
+    LFU {
+        @Override
+        Evictor create(int maximumSize) {
+            return new LfuEvictor();
+        }
+    },
+    TINY_LFU {
+        @Override
+        Evictor create(int maximumSize) {
+            return new TinyLfuEvictor(maximumSize);
+        }
+    };
+
+    abstract Evictor create(int maximumSize);
+}
@@ -0,0 +1,18 @@
+package io.collective;
+
+interface Evictor {
+    //Description:
+    //   the bookkeeping side of an eviction policy for a size-bounded cache
+    //   the cache reports every insert, read hit and removal by entry index, and asks for a victim
+    //   whenever an insert pushes it past its maximum size
+
+    void resize(int capacity);
+
+    void recordInsert(int entry, int hash);
+
+    void recordAccess(int entry, int hash);
+
+    void recordRemoval(int entry);
+
+    int victim(); // the entry to evict; may be the entry that was just inserted
+}
@@ -0,0 +1,12 @@
+package io.collective;
+
+public enum ExpiryMode {
+    //Description:
+    //   how an entry's retention is counted, chosen per entry on put
+    //   AFTER_WRITE - the entry expires its retention after it was put, however often it is read
+    //   AFTER_ACCESS - the entry expires once it has gone unread for its retention, so every get extends it;
+    //      suited to session-style data that should live as long as it is in use
+
+    AFTER_WRITE,
+    AFTER_ACCESS
+}
@@ -0,0 +1,80 @@
+package io.collective;
+
+final class FrequencySketch {
+    //Description:
+    //   a count-min sketch estimating how often each key hash has been seen, for TinyLFU admission
+    //   counters are four bits wide and packed sixteen to a long; each hash increments one counter
+    //   in each of four rows and its estimate is the smallest of the four
+    //   after sampleSize increments every counter is halved, so old popularity fades over time
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L; // clears the bit shifted in from the next counter
+    private static final int MAXIMUM_COUNT = 15;
+
+    private final long[] table;
+    private final int counterMask;
+    private final int sampleSize;
+    private int additions = 0;
+
+    FrequencySketch(int maximumSize) {
+        // one long, i.e. sixteen counters, per cache entry keeps collisions low
+        int width = Integer.highestOneBit(Math.max(maximumSize, 16) * 2 - 1);
+        this.table = new long[width];
+        this.counterMask = (width * 16) - 1;
+        this.sampleSize = 10 * Math.max(maximumSize, 16);
+    }
+
+    int frequency(int hash) {
+        //Description:
+        //   a method to estimate how many times a hash has been seen since the last halving
+        //Parameters:
+        //   hash | int | the spread hash of a key
+        //Returns:
+        //   the estimated count, 0 through 15
+        int frequency = MAXIMUM_COUNT;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int counter = counterFor(hash, row);
+            int count = (int) ((table[counter >>> 4] >>> ((counter & 15) << 2)) & 0xFL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    void increment(int hash) {
+        //Description:
+        //   a method to record one sighting of a hash, halving every counter once enough have been recorded
+        //Parameters:
+        //   hash | int | the spread hash of a key
+        //Returns:
+        //   void
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int counter = counterFor(hash, row);
+            int index = counter >>> 4;
+            int shift = (counter & 15) << 2;
+            long mask = 0xFL << shift;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && (++additions == sampleSize)) {
+            reset();
+        }
+    }
+
+    private int counterFor(int hash, int row) {
+        // rehash with a per-row seed so the four rows disagree about which keys collide
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += (h >>> 32);
+        return ((int) h) & counterMask;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = additions / 2;
+    }
+}
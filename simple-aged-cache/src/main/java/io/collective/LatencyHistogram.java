@@ -0,0 +1,66 @@
+package io.collective;
+
+import java.util.concurrent.atomic.LongAdder;
+
+final class LatencyHistogram {
+    //Description:
+    //   a concurrent histogram of operation latencies in nanoseconds
+    //   bucket b counts latencies below 2^b, so 64 buckets cover any long with at most a factor of two of error
+    //   and recording is one leading-zero count and two LongAdder increments
+
+    static final int BUCKETS = 64;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder totalNanos = new LongAdder();
+
+    LatencyHistogram() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts[bucket] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        long latency = Math.max(nanos, 0); // nanoTime can step backwards across cores on some platforms
+        counts[64 - Long.numberOfLeadingZeros(latency)].increment();
+        totalNanos.add(latency);
+    }
+
+    long[] snapshot() {
+        // the count of each bucket; buckets are read one at a time, so the copy is not an atomic view
+        long[] snapshot = new long[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            snapshot[bucket] = counts[bucket].sum();
+        }
+        return snapshot;
+    }
+
+    long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    static long percentile(long[] buckets, double quantile) {
+        //Description:
+        //   a method to estimate a latency percentile from bucket counts
+        //Parameters:
+        //   buckets | long[] | bucket counts as returned by snapshot
+        //   quantile | double | the fraction of operations at or below the answer, between 0 and 1
+        //Returns:
+        //   the upper bound in nanoseconds of the bucket holding the percentile, 0 when nothing was recorded
+        if ((quantile < 0) || (quantile > 1)) {
+            throw new IllegalArgumentException("quantile must be between 0 and 1");
+        }
+        long total = 0;
+        for (long count : buckets) {
+            total += count;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            seen += buckets[bucket];
+            if (seen >= rank) {
+                return (bucket == 0) ? 0 : ((1L << bucket) - 1);
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,68 @@
+package io.collective;
+
+final class LfuEvictor implements Evictor {
+    //Description:
+    //   least frequently used eviction in O(1): each access count has its own list, an entry's list
+    //   index is its count, and a hit moves it to the tail of the next list up
+    //   counts saturate at MAXIMUM_FREQUENCY so the number of lists stays fixed
+    //   the victim is the head of the lowest non-empty list, i.e. the oldest of the least used entries;
+    //   the entry being inserted is passed over, otherwise a newcomer with a count of one would always lose
+
+    private static final int MAXIMUM_FREQUENCY = 255;
+
+    private final EntryLists lists = new EntryLists(MAXIMUM_FREQUENCY + 1); // list 0 is never used
+    private int lowestFrequency = 1; // no entry has a count below this; removals may leave it stale but never too high
+    private int newest = EntryLists.NONE; // the most recently inserted entry
+
+    @Override
+    public void resize(int capacity) {
+        lists.resize(capacity);
+    }
+
+    @Override
+    public void recordInsert(int entry, int hash) {
+        lists.addLast(1, entry);
+        lowestFrequency = 1;
+        newest = entry;
+    }
+
+    @Override
+    public void recordAccess(int entry, int hash) {
+        int frequency = lists.listOf(entry);
+        if (frequency == MAXIMUM_FREQUENCY) {
+            lists.moveToLast(frequency, entry); // saturated entries keep recency order among themselves
+            return;
+        }
+        lists.moveToLast(frequency + 1, entry);
+        if ((frequency == lowestFrequency) && (lists.size(frequency) == 0)) {
+            lowestFrequency = frequency + 1;
+        }
+    }
+
+    @Override
+    public void recordRemoval(int entry) {
+        lists.unlink(entry);
+        if (entry == newest) {
+            newest = EntryLists.NONE;
+        }
+    }
+
+    @Override
+    public int victim() {
+        while ((lowestFrequency < MAXIMUM_FREQUENCY) && (lists.size(lowestFrequency) == 0)) {
+            lowestFrequency++;
+        }
+        int victim = lists.first(lowestFrequency);
+        if (victim != newest) {
+            return victim;
+        }
+
+        // newcomers join the tail, so at the head it is alone in its list; take the head of the next list up
+        for (int frequency = lowestFrequency + 1; frequency <= MAXIMUM_FREQUENCY; frequency++) {
+            if (lists.size(frequency) > 0) {
+                return lists.first(frequency);
+            }
+        }
+        return victim; // the newcomer is the only entry
+    }
+}
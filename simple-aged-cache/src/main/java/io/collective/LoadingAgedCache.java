@@ -0,0 +1,180 @@
+package io.collective;
+
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+public class LoadingAgedCache {
+    //Description:
+    //   a compute-if-absent cache in front of slow backends, built on ConcurrentAgedCache
+    //   getOrLoad returns the cached value or runs the loader on a miss; concurrent misses on the same
+    //   key share a single in-flight load instead of each calling the backend, and no caller ever sees
+    //   the duplicate-key IllegalArgumentException that racing get-then-put callers would
+    //   with refresh-ahead enabled, a hit on an entry close to its deadline reloads it in the background
+    //   so callers keep reading the old value instead of all missing at once when it expires
+
+    private final Ticker ticker;
+    private final ConcurrentAgedCache cache;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+    private final int refreshAheadMillis; // 0 disables refresh-ahead
+    private final Executor refreshExecutor;
+
+    // constructor to accept ticker and refresh-ahead parameters
+    public LoadingAgedCache(Ticker ticker, int refreshAheadMillis, Executor refreshExecutor) {
+        if (refreshAheadMillis < 0) {
+            throw new IllegalArgumentException("refreshAheadMillis cannot be negative");
+        }
+        if ((refreshAheadMillis > 0) && (refreshExecutor == null)) {
+            throw new IllegalArgumentException("refreshExecutor cannot be null when refreshing ahead");
+        }
+        this.ticker = ticker;
+        this.cache = new ConcurrentAgedCache(ticker);
+        this.refreshAheadMillis = refreshAheadMillis;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    // overloaded constructor to accept clock and refresh-ahead parameters
+    public LoadingAgedCache(Clock cacheClock, int refreshAheadMillis, Executor refreshExecutor) {
+        this(Ticker.of(cacheClock), refreshAheadMillis, refreshExecutor);
+    }
+
+    // overloaded constructor without refresh-ahead
+    public LoadingAgedCache(Clock cacheClock) {
+        this(cacheClock, 0, null);
+    }
+
+    // overloaded constructor for default value handling
+    public LoadingAgedCache() {
+        this(Clock.systemUTC());
+    }
+
+    public Object getOrLoad(String key, Function<String, Object> loader, int retentionInMillis) {
+        //Description:
+        //   a class method that returns the value for a key, loading and caching it on a miss
+        //   only one caller per key runs the loader at a time; the others wait for and share its result
+        //   a loader that throws fails every caller waiting on that load, and nothing is cached
+        //Parameters:
+        //   key | String | the string for index-retrieval of the stored value
+        //   loader | Function | computes the value for a key that is not cached; must not return null
+        //   retentionInMillis | Int | retention age in milliseconds for a loaded value, 0 for permanent
+        //Returns:
+        //   value | Any? | the cached or freshly loaded value
+        if (key == null) {
+            throw new IllegalArgumentException("key cannot be null");
+        }
+        Object value = cache.get(key);
+        if (value != null) {
+            refreshIfNearExpiry(key, loader, retentionInMillis);
+            return value;
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return await(inFlight); // another caller is already loading this key
+        }
+
+        try {
+            // a load that finished between the miss above and claiming the key has already cached the value
+            value = cache.get(key);
+            if (value == null) {
+                value = loader.apply(key);
+                if (value == null) {
+                    throw new IllegalArgumentException("loader returned null for key " + key);
+                }
+                cache.replace(key, value, retentionInMillis);
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error failure) {
+            load.completeExceptionally(failure);
+            throw failure;
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    private void refreshIfNearExpiry(String key, Function<String, Object> loader, int retentionInMillis) {
+        // start a background reload when the entry has less than refreshAheadMillis to live
+        //    and nobody else is loading it; misses during the reload wait on it like any other load
+        if ((refreshAheadMillis == 0) || (retentionInMillis == 0)) {
+            return;
+        }
+        long now = ticker.millis();
+        long expiresAt = cache.expiresAt(key);
+        if ((expiresAt == 0) || (expiresAt == Long.MAX_VALUE)) {
+            return; // invalidated since the hit, or stored permanently; there is nothing to refresh
+        }
+        if (expiresAt - now > refreshAheadMillis) {
+            return;
+        }
+        CompletableFuture<Object> refresh = new CompletableFuture<>();
+        if (loads.putIfAbsent(key, refresh) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    Object value = loader.apply(key);
+                    if (value == null) {
+                        throw new IllegalArgumentException("loader returned null for key " + key);
+                    }
+                    cache.replace(key, value, retentionInMillis);
+                    refresh.complete(value);
+                } catch (Throwable failure) {
+                    // the current value stays until it expires, and the next miss loads it again
+                    refresh.completeExceptionally(failure);
+                } finally {
+                    loads.remove(key, refresh);
+                }
+            });
+        } catch (RuntimeException rejected) {
+            // a shut-down or saturated executor skips this refresh; the hit still returns its value
+            //    and the key is released so later misses load it themselves
+            loads.remove(key, refresh);
+            refresh.completeExceptionally(rejected);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> load) {
+        // wait for another caller's load, rethrowing its failure as is
+        try {
+            return load.join();
+        } catch (CompletionException wrapped) {
+            Throwable failure = wrapped.getCause();
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw wrapped;
+        }
+    }
+
+    public Object get(String key) {
+        // the cached value for a key, without loading
+        return cache.get(key);
+    }
+
+    public boolean invalidate(String key) {
+        // drop the cached value for a key; a load already in flight still completes and caches its result
+        return cache.invalidate(key);
+    }
+
+    public void addRemovalListener(RemovalListener listener, Executor executor) {
+        // register a listener for entries leaving the cache; reloaded entries are reported as REPLACED
+        cache.addRemovalListener(listener, executor);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public boolean isEmpty() {
+        return cache.isEmpty();
+    }
+}
@@ -0,0 +1,259 @@
+package io.collective;
+
+import java.time.Clock;
+
+public class LongAgedCache {
+    //Description:
+    //   an aged cache specialised for long keys, such as numeric ids
+    //   it has the expiry semantics of SimpleAgedCache: permanent and expiring entries, a duplicate key
+    //   rejected on put, expired entries reading as absent, and cleanup through a timing wheel
+    //   keys are kept unboxed in a long array parallel to the values and deadlines, so a lookup hashes
+    //   the key arithmetically and compares primitives instead of building a String and calling equals
+    //   entries are located through an open-addressing table of entry indices, as in SimpleAgedCache;
+    //   a key's hash is cheap to recompute, so unlike SimpleAgedCache no hashes array is kept
+
+    private static final int INITIAL_CAPACITY = 8;
+    private static final long PERMANENT = Long.MAX_VALUE; // deadline of an entry that never expires
+
+    private final Ticker ticker; // time source for deadlines and expiry checks
+    private int currentIndex = 0; // number of live entries in the cache
+    private int highWaterMark = 0; // first entry index that has never been handed out
+    long[] keys = new long[0];
+    Object[] values = new Object[0]; // null marks a released entry, since every long is a valid key
+    long[] deadlines = new long[0]; // epoch millisecond at which each entry expires, PERMANENT when it never does
+    int[] slots = new int[0]; // open-addressing table; each slot holds entry index + 1, 0 marks an empty slot
+    private int[] freeEntries = new int[0]; // stack of entry indices released by removeAt
+    private int freeCount = 0;
+    private final TimerWheel expiryWheel; // deadline index of the expiring entries
+    private final TimerWheel.Expiration expiration = this::expireEntry;
+
+    // constructor to accept ticker parameter
+    public LongAgedCache(Ticker ticker) {
+        if (ticker == null) {
+            throw new IllegalArgumentException("ticker cannot be null");
+        }
+        this.ticker = ticker;
+        this.expiryWheel = new TimerWheel(ticker.millis());
+    }
+
+    // overloaded constructor to accept clock parameter
+    public LongAgedCache(Clock cacheClock) {
+        this(Ticker.of(cacheClock));
+    }
+
+    // overloaded constructor for default value handling
+    public LongAgedCache() {
+        this(Clock.systemUTC());
+    }
+
+    static int spread(long key) {
+        //Description:
+        //   a method to mix all 64 bits of a key into a table hash, so sequential ids scatter across the table
+        //Parameters:
+        //   key | long | the key
+        //Returns:
+        //   the spread hash as int
+        long h = key * 0x9E3779B97F4A7C15L; // multiply by the 64-bit golden ratio to push low bits upward
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void resizeArrays() {
+        // double the entry arrays and rebuild the slot table at twice the entry capacity
+        int newSize = (keys.length == 0) ? (INITIAL_CAPACITY) : (keys.length * 2);
+
+        long[] newKeys = new long[newSize];
+        Object[] newValues = new Object[newSize];
+        long[] newDeadlines = new long[newSize];
+        System.arraycopy(keys, 0, newKeys, 0, keys.length);
+        System.arraycopy(values, 0, newValues, 0, values.length);
+        System.arraycopy(deadlines, 0, newDeadlines, 0, deadlines.length);
+        keys = newKeys;
+        values = newValues;
+        deadlines = newDeadlines;
+        freeEntries = new int[newSize]; // resize only happens when every entry is in use, so the stack is empty
+        freeCount = 0;
+        expiryWheel.resize(newSize);
+
+        slots = new int[newSize * 2];
+        int mask = slots.length - 1;
+        for (int entry = 0; entry < highWaterMark; entry++) {
+            if (values[entry] == null) {
+                continue;
+            }
+            int slot = spread(keys[entry]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+    }
+
+    private int slotOf(long key) {
+        //Description:
+        //   a method to find the table slot holding the given key using linear probing
+        //Parameters:
+        //   key | long | the key to look for
+        //Returns:
+        //   the slot index when found
+        //   -1 when the key is not in the table
+        if (slots.length == 0) {
+            return -1;
+        }
+        int mask = slots.length - 1;
+        int slot = spread(key) & mask;
+        while (true) {
+            int entry = slots[slot] - 1;
+            if (entry == -1) {
+                return -1; // an empty slot ends the probe sequence
+            }
+            if (keys[entry] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void removeAt(int slot) {
+        // eject the entry held in the given table slot with backward-shift deletion, as in SimpleAgedCache
+        int mask = slots.length - 1;
+        int entry = slots[slot] - 1;
+
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (slots[next] != 0) {
+            int home = spread(keys[slots[next] - 1]) & mask;
+            // the entry at next may move into the hole only if its home slot is not between the hole and next
+            boolean movable = (hole <= next)
+                    ? ((home <= hole) || (home > next))
+                    : ((home <= hole) && (home > next));
+            if (movable) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots[hole] = 0;
+
+        expiryWheel.deschedule(entry);
+        values[entry] = null;
+        freeEntries[freeCount++] = entry;
+        currentIndex--; // decrement the currentIndex to account for drop
+    }
+
+    private void expireEntry(int entry) {
+        // callback for the expiry wheel; the entry is already out of the wheel and only needs its slot freed
+        removeAt(slotOf(keys[entry]));
+    }
+
+    public int size() {
+        //Description:
+        //   a class method that checks cache size, after cleaning up expired entries
+        //Parameters:
+        //   N/A
+        //Returns:
+        //   the size of the cache as Int
+        expiryWheel.advance(ticker.millis(), deadlines, expiration);
+        return currentIndex;
+    }
+
+    public boolean isEmpty() {
+        //Description:
+        //   a class method that checks if the cache is empty
+        //Parameters:
+        //   N/A
+        //Returns:
+        //   true/false based on if length of cache is/is not 0; Boolean
+        return this.size() == 0;
+    }
+
+    public void put(long key, Object value, int retentionInMillis) {
+        //Description:
+        //   a class method for inserting a key-value pair and length of retention
+        //Parameters:
+        //   key | long | the key for index-retrieval of the stored value
+        //   value | any? | the stored value, can be arbitrary type
+        //   retentionInMillis | Int | retention age in milliseconds, 0 for a permanent entry
+        //Returns:
+        //   void
+
+        // Clean up expired entries
+        long now = ticker.millis();
+        expiryWheel.advance(now, deadlines, expiration);
+
+        // disallow key-value pair assignment of null values
+        if (value == null) {
+            throw new IllegalArgumentException("value cannot be null");
+        }
+        // disallow duplicate key entries
+        if (this.slotOf(key) != -1) {
+            throw new IllegalArgumentException("key already exists in the array");
+        }
+        // an entry whose retention has already elapsed would be expired on arrival, so it is never stored
+        if (retentionInMillis < 0) {
+            return;
+        }
+
+        // Resize arrays if necessary
+        if (currentIndex >= keys.length) {
+            this.resizeArrays();
+        }
+
+        // take a released entry index if there is one, otherwise the next unused index
+        int entry = (freeCount > 0) ? (freeEntries[--freeCount]) : (highWaterMark++);
+        keys[entry] = key;
+        values[entry] = value;
+        if (retentionInMillis == 0) {
+            deadlines[entry] = PERMANENT;
+        } else {
+            deadlines[entry] = now + retentionInMillis;
+            expiryWheel.schedule(entry, deadlines[entry]);
+        }
+
+        // link the entry into the first empty slot of its probe sequence
+        int mask = slots.length - 1;
+        int slot = spread(key) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry + 1;
+
+        currentIndex++;
+    }
+
+    public Object get(long key) {
+        //Description:
+        //   a class method that returns a value based on given key
+        //Parameters:
+        //   key | long | the key for index-retrieval of the stored value
+        //Returns:
+        //   value | Any? | the stored value for the key, null when absent or expired
+        int slot = this.slotOf(key);
+        if (slot == -1) {
+            return null;
+        }
+
+        int entry = slots[slot] - 1;
+        long deadline = deadlines[entry];
+        if ((deadline != PERMANENT) && (deadline <= ticker.millis())) {
+            // the value has expired
+            removeAt(slot);
+            return null;
+        }
+        return values[entry];
+    }
+
+    public boolean invalidate(long key) {
+        //Description:
+        //   a class method to drop the entry for a key, live or expired
+        //Parameters:
+        //   key | long | the key for index-retrieval of the stored value
+        //Returns:
+        //   true when an entry was removed, false when there was none
+        int slot = this.slotOf(key);
+        if (slot == -1) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+}
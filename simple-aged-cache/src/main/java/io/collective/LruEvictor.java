@@ -0,0 +1,36 @@
+package io.collective;
+
+final class LruEvictor implements Evictor {
+    //Description:
+    //   least recently used eviction: entries sit in one list ordered from least to most recently used,
+    //   every hit moves the entry to the tail and the victim is taken from the head
+
+    private static final int ACCESS_ORDER = 0;
+
+    private final EntryLists lists = new EntryLists(1);
+
+    @Override
+    public void resize(int capacity) {
+        lists.resize(capacity);
+    }
+
+    @Override
+    public void recordInsert(int entry, int hash) {
+        lists.addLast(ACCESS_ORDER, entry);
+    }
+
+    @Override
+    public void recordAccess(int entry, int hash) {
+        lists.moveToLast(ACCESS_ORDER, entry);
+    }
+
+    @Override
+    public void recordRemoval(int entry) {
+        lists.unlink(entry);
+    }
+
+    @Override
+    public int victim() {
+        return lists.first(ACCESS_ORDER);
+    }
+}
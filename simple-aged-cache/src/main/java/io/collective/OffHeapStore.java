@@ -0,0 +1,245 @@
+package io.collective;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+final class OffHeapStore {
+    //Description:
+    //   value storage outside the Java heap, in direct ByteBuffer slabs
+    //   a value takes a chunk holding a four-byte length header and the value, addressed by a long reference
+    //   (slab index in the high half, offset in the low half), so the cache only keeps one long per entry on heap
+    //   chunks are rounded up to a size class, four classes to each doubling, so no chunk wastes more than a
+    //   quarter of itself; a released chunk goes on its class's free list and the next value of that class
+    //   takes it before the current slab is bump-allocated further, so slabs pinned by a few long-lived values
+    //   are filled again instead of new ones being added
+    //   the free lists are linked through the free chunks themselves, after the length header:
+    //      int length | long next free chunk | long previous free chunk
+    //   each slab counts its live bytes; a slab whose values have all been released has its chunks taken off
+    //   the free lists and is reset and reused for any class, and values too large for a slab get a dedicated
+    //   buffer that is dropped when they are released
+
+    private static final int HEADER_BYTES = 4;
+    private static final int MIN_CHUNK_BYTES = 24; // room for the header and both free-list links
+    private static final int CLASSES = 2 + 4 * (31 - 5); // 24 and 32, then four classes per doubling above 32
+    private static final long NONE = -1; // the end of a free list
+    static final int DEFAULT_SLAB_BYTES = 1 << 20;
+
+    private final int slabBytes;
+    private ByteBuffer[] slabs = new ByteBuffer[0];
+    private int[] liveBytes = new int[0];
+    private int[] slabEnds = new int[0]; // bytes of each slab handed out to chunks so far
+    private int[] freeSlabs = new int[0]; // stack of slab indices that can be handed out again
+    private int freeSlabCount = 0;
+    private int slabCount = 0;
+    private int currentSlab = -1;
+    private final long[] freeChunks = new long[CLASSES]; // the first free chunk of each size class
+    private long reservedBytes = 0;
+
+    OffHeapStore(int slabBytes) {
+        if (slabBytes <= HEADER_BYTES) {
+            throw new IllegalArgumentException("slabBytes must leave room for a value");
+        }
+        this.slabBytes = slabBytes;
+        Arrays.fill(freeChunks, NONE);
+    }
+
+    long store(byte[] value) {
+        //Description:
+        //   a method to copy a value into off-heap memory
+        //Parameters:
+        //   value | byte[] | the encoded value
+        //Returns:
+        //   the reference to pass to read and release
+        int chunk = chunkBytes(value.length);
+        long reference;
+        if (chunk > slabBytes) {
+            reference = (long) takeSlab(HEADER_BYTES + value.length) << 32; // a dedicated buffer for an oversized value
+            liveBytes[(int) (reference >>> 32)] = HEADER_BYTES + value.length;
+        } else {
+            reference = allocate(chunk);
+            liveBytes[(int) (reference >>> 32)] += chunk;
+        }
+
+        ByteBuffer buffer = slabs[(int) (reference >>> 32)];
+        int offset = (int) reference;
+        buffer.putInt(offset, value.length);
+        buffer.put(offset + HEADER_BYTES, value);
+        return reference;
+    }
+
+    ByteBuffer read(long reference) {
+        //Description:
+        //   a method to view a stored value without copying it
+        //Parameters:
+        //   reference | long | a reference returned by store
+        //Returns:
+        //   a buffer positioned at the value's first byte with its limit after the last
+        ByteBuffer slab = slabs[(int) (reference >>> 32)];
+        int offset = (int) reference;
+        int length = slab.getInt(offset);
+        return slab.slice(offset + HEADER_BYTES, length);
+    }
+
+    void release(long reference) {
+        //Description:
+        //   a method to give back the memory of a stored value
+        //Parameters:
+        //   reference | long | a reference returned by store; it must not be used again
+        //Returns:
+        //   void
+        int slab = (int) (reference >>> 32);
+        int chunk = chunkBytes(slabs[slab].getInt((int) reference));
+        if (chunk > slabBytes) {
+            liveBytes[slab] = 0;
+            recycle(slab); // the value had a buffer to itself
+            return;
+        }
+        liveBytes[slab] -= chunk;
+        if (liveBytes[slab] == 0) {
+            empty(slab, reference);
+        } else {
+            link(reference, chunk);
+        }
+    }
+
+    long reservedBytes() {
+        // the off-heap memory currently held by slabs, live or not
+        return reservedBytes;
+    }
+
+    private long allocate(int chunk) {
+        // a chunk of a size class: a free one of that class, else the next bytes of the current slab
+        int sizeClass = classOf(chunk);
+        long reference = freeChunks[sizeClass];
+        if (reference != NONE) {
+            unlink(reference, chunk);
+            return reference;
+        }
+        if ((currentSlab == -1) || (slabEnds[currentSlab] + chunk > slabBytes)) {
+            int full = currentSlab;
+            currentSlab = takeSlab(slabBytes);
+            if ((full != -1) && (liveBytes[full] == 0)) {
+                empty(full, NONE); // every value in the slab we are leaving was already released
+            }
+        }
+        int offset = slabEnds[currentSlab];
+        slabEnds[currentSlab] += chunk;
+        return ((long) currentSlab << 32) | offset;
+    }
+
+    private void empty(int slab, long released) {
+        //Description:
+        //   a method to reclaim a standard slab with no live values: its free chunks leave the free lists,
+        //   and it is started over if it is the current slab or kept for reuse otherwise
+        //Parameters:
+        //   slab | int | the slab index
+        //   released | long | the reference of a chunk just released and never linked, NONE for none
+        //Returns:
+        //   void
+        ByteBuffer buffer = slabs[slab];
+        int offset = 0;
+        while (offset < slabEnds[slab]) {
+            long reference = ((long) slab << 32) | offset;
+            int chunk = chunkBytes(buffer.getInt(offset));
+            if (reference != released) {
+                unlink(reference, chunk);
+            }
+            offset += chunk;
+        }
+        slabEnds[slab] = 0;
+        if (slab != currentSlab) {
+            recycle(slab);
+        }
+    }
+
+    private void link(long reference, int chunk) {
+        // push a released chunk onto the free list of its class
+        int sizeClass = classOf(chunk);
+        long next = freeChunks[sizeClass];
+        ByteBuffer slab = slabs[(int) (reference >>> 32)];
+        slab.putLong((int) reference + HEADER_BYTES, next);
+        slab.putLong((int) reference + HEADER_BYTES + 8, NONE);
+        if (next != NONE) {
+            slabs[(int) (next >>> 32)].putLong((int) next + HEADER_BYTES + 8, reference);
+        }
+        freeChunks[sizeClass] = reference;
+    }
+
+    private void unlink(long reference, int chunk) {
+        // take a free chunk off the free list of its class
+        ByteBuffer slab = slabs[(int) (reference >>> 32)];
+        long next = slab.getLong((int) reference + HEADER_BYTES);
+        long previous = slab.getLong((int) reference + HEADER_BYTES + 8);
+        if (previous == NONE) {
+            freeChunks[classOf(chunk)] = next;
+        } else {
+            slabs[(int) (previous >>> 32)].putLong((int) previous + HEADER_BYTES, next);
+        }
+        if (next != NONE) {
+            slabs[(int) (next >>> 32)].putLong((int) next + HEADER_BYTES + 8, previous);
+        }
+    }
+
+    private static int chunkBytes(int length) {
+        //Description:
+        //   a method to round the space a value needs up to its size class
+        //   up to 32 bytes the classes are 24 and 32; above, each doubling is cut into four equal steps
+        //Parameters:
+        //   length | int | the value's length in bytes
+        //Returns:
+        //   the bytes of the chunk that holds the value and its header
+        long needed = (long) HEADER_BYTES + length;
+        if (needed <= 32) {
+            return (needed <= MIN_CHUNK_BYTES) ? MIN_CHUNK_BYTES : 32;
+        }
+        long step = Long.highestOneBit(needed - 1) >>> 2;
+        long chunk = (needed + step - 1) / step * step;
+        return (int) Math.min(chunk, Integer.MAX_VALUE); // anything this large is a dedicated buffer anyway
+    }
+
+    private static int classOf(int chunk) {
+        // the free list of a chunk size returned by chunkBytes
+        if (chunk <= 32) {
+            return (chunk == MIN_CHUNK_BYTES) ? 0 : 1;
+        }
+        int bits = 31 - Integer.numberOfLeadingZeros(chunk - 1); // 2^bits < chunk <= 2^(bits + 1)
+        int step = 1 << (bits - 2);
+        return 2 + (bits - 5) * 4 + (chunk / step - 5);
+    }
+
+    private int takeSlab(int capacity) {
+        // reuse a released standard slab when one fits, otherwise allocate a new buffer
+        int slab;
+        if (freeSlabCount > 0) {
+            slab = freeSlabs[--freeSlabCount];
+        } else {
+            if (slabCount == slabs.length) {
+                int newLength = Math.max(4, slabs.length * 2);
+                slabs = Arrays.copyOf(slabs, newLength);
+                liveBytes = Arrays.copyOf(liveBytes, newLength);
+                slabEnds = Arrays.copyOf(slabEnds, newLength);
+                freeSlabs = Arrays.copyOf(freeSlabs, newLength);
+            }
+            slab = slabCount++;
+        }
+        if ((slabs[slab] == null) || (slabs[slab].capacity() != capacity)) {
+            if (slabs[slab] != null) {
+                reservedBytes -= slabs[slab].capacity();
+            }
+            slabs[slab] = ByteBuffer.allocateDirect(capacity);
+            reservedBytes += capacity;
+        }
+        liveBytes[slab] = 0;
+        slabEnds[slab] = 0;
+        return slab;
+    }
+
+    private void recycle(int slab) {
+        // standard slabs are kept for reuse; dedicated buffers are dropped so their memory can be reclaimed
+        if (slabs[slab].capacity() != slabBytes) {
+            reservedBytes -= slabs[slab].capacity();
+            slabs[slab] = null;
+        }
+        freeSlabs[freeSlabCount++] = slab;
+    }
+}
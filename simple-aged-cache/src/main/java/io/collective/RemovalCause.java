@@ -0,0 +1,15 @@
+package io.collective;
+
+public enum RemovalCause {
+    //Description:
+    //   why an entry left the cache, as reported to a RemovalListener
+    //   EXPIRED - its retention elapsed; reported when the entry is cleaned up, which may be some time later
+    //   EVICTED - the eviction policy dropped it to keep a bounded cache within its maximum size
+    //   EXPLICIT - it was invalidated by the caller
+    //   REPLACED - a new value was stored over it, as LoadingAgedCache does on a reload
+
+    EXPIRED,
+    EVICTED,
+    EXPLICIT,
+    REPLACED
+}
@@ -0,0 +1,12 @@
+package io.collective;
+
+public interface RemovalListener {
+    //Description:
+    //   a callback told about every entry that leaves a cache, with the reason it left
+    //   listeners run on the executor they were registered with, never while the cache is mid-update:
+    //   expired entries are collected first and removed one at a time once the expiry pass is done, so even
+    //   a listener run inline by Runnable::run may call back into the cache; an exception thrown by a listener goes to the uncaught
+    //   exception handler of the thread that ran it and does not affect the cache or other listeners
+
+    void onRemoval(String key, Object value, RemovalCause cause);
+}
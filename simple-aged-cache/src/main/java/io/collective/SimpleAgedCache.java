@@ -1,21 +1,139 @@
 package io.collective;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.time.Clock;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class SimpleAgedCache {
+    interface Demotion {
+        // callback handed each entry the eviction policy drops, for a lower tier to keep; called on the evicting thread
+        void demote(String key, Object value, long deadline);
+    }
+
     //Description:
     //   a class for a simple aged cache that allows both permanent
     //   and expiring cache entries
-    //   entries are stored as key-value pairs alongside their retention time in milliseconds    
-    
-    private final Clock cacheClock;
-    private int currentIndex = 0;
+    //   entries are stored as key-value pairs alongside their deadline in epoch milliseconds
+    //   entries live in parallel keys/values arrays and are located through an open-addressing
+    //   hash table of entry indices, so put and get no longer scan every key
+    //   expiring entries are also filed in a timing wheel by deadline, so cleanup only touches
+    //   entries that have actually expired instead of sweeping the whole cache
+    //   a cache may be bounded to a maximum number of entries, in which case an eviction policy
+    //   picks the entry to drop whenever a put would exceed it
+    //   given a ValueCodec, values are kept off-heap in direct memory slabs and only a long reference per
+    //   entry stays on heap, so GC work no longer grows with the amount of cached data
+    //   deadlines are kept in a primitive long array parallel to keys and values rather than in a
+    //   wrapper object per entry, so put and get allocate nothing beyond the caller's own key and value
+    //   given a StatsRecorder, hits, misses, puts, expirations, evictions, resizes and get/put latencies
+    //   are recorded into it; without one the cache records nothing beyond its own hit/miss/eviction counts
+    //   removal listeners are told about every entry that expires, is evicted or is invalidated, on an
+    //   executor of their choosing so slow listeners stay off the caller's thread
+    //   live entries can be written to a snapshot file and restored into a fresh cache after a restart,
+    //   keeping their deadlines
+    //   time is read through a Ticker; a Clock is adapted with Ticker.of, and Ticker.cached() serves a
+    //   background-updated timestamp so expiry checks cost one volatile read
+    //   an entry may instead expire after access, in which case each get extends its deadline; reads only
+    //   append to a small access buffer, and the deadlines are brought up to date when the buffer is drained
+    //   ahead of expiry cleanup, so a hot key never touches the expiry wheel on its way through get
+    //   with deferred maintenance, put, get and size only read expiry state and expired entries stay until
+    //   maintain removes them in bounded batches, as ConcurrentAgedCache does on a scheduled executor;
+    //   size is then an O(1) count that may include expired entries, and exactSize sweeps before counting
+
+    private static final int INITIAL_CAPACITY = 8;
+    static final int UNBOUNDED = Integer.MAX_VALUE;
+    private static final long PERMANENT = Long.MAX_VALUE; // deadline of an entry that never expires
+    private static final int ACCESS_BUFFER_SIZE = 128; // reads of expire-after-access entries recorded between drains
+
+    private final Ticker ticker; // time source for deadlines and expiry checks
+    private int currentIndex = 0; // number of live entries in the cache
+    private int highWaterMark = 0; // first entry index that has never been handed out
     String[] keys = new String[0]; // declaring zero-length array of String for keys
     Object[] values = new Object[0]; // declaring zero-length array of Object/Anytype for values
+    int[] hashes = new int[0]; // the spread hash of each entry's key, saves rehashing on probe and delete
+    long[] deadlines = new long[0]; // epoch millisecond at which each entry expires, PERMANENT when it never does
+    int[] slots = new int[0]; // open-addressing table; each slot holds entry index + 1, 0 marks an empty slot
+    private int[] freeEntries = new int[0]; // stack of entry indices released by removeAt
+    private int freeCount = 0;
+    private final TimerWheel expiryWheel; // deadline index of the expiring entries
+    private final int maximumSize;
+    private final Evictor evictor; // null when the cache is unbounded
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+    private final ValueCodec codec; // null when values are kept on heap
+    private final OffHeapStore offHeapStore;
+    long[] valueRefs = new long[0]; // off-heap reference of each entry's value, used in place of values
+    private final StatsRecorder stats; // null when stats are disabled
+    int[] idleTimes; // idle retention of each expire-after-access entry, 0 for the rest; null until the first one
+    private final int[] accessEntries = new int[ACCESS_BUFFER_SIZE]; // entries read since the last drain
+    private final long[] accessTimes = new long[ACCESS_BUFFER_SIZE]; // when each of them was read
+    private int accessCount = 0;
+    private RemovalListener[] listeners = new RemovalListener[0];
+    private Executor[] listenerExecutors = new Executor[0]; // the executor each listener is called on
+    private Demotion demotion; // null when evicted entries are simply dropped
+    private boolean deferredMaintenance = false; // when set, expired entries are only removed by maintain
+    private int[] pendingExpirations = new int[0]; // entries the wheel has handed out but that are not removed yet
+    private int pendingCount = 0;
+    private final TimerWheel.Expiration deferral = this::deferExpiry;
+
+    // constructor to accept ticker, maximum size, eviction policy, value codec and stats recorder parameters
+    //    a null codec keeps values on heap and a null recorder disables stats
+    public SimpleAgedCache(Ticker ticker, int maximumSize, EvictionPolicy policy, ValueCodec codec, StatsRecorder stats) {
+        if (ticker == null) {
+            throw new IllegalArgumentException("ticker cannot be null");
+        }
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("policy cannot be null");
+        }
+        this.ticker = ticker;
+        this.expiryWheel = new TimerWheel(ticker.millis());
+        this.maximumSize = maximumSize;
+        this.evictor = (maximumSize == UNBOUNDED) ? null : policy.create(maximumSize);
+        this.codec = codec;
+        this.offHeapStore = (codec == null) ? null : new OffHeapStore(OffHeapStore.DEFAULT_SLAB_BYTES);
+        this.stats = stats;
+    }
+
+    // overloaded constructor to accept ticker, maximum size, eviction policy and value codec parameters
+    public SimpleAgedCache(Ticker ticker, int maximumSize, EvictionPolicy policy, ValueCodec codec) {
+        this(ticker, maximumSize, policy, codec, null);
+    }
+
+    // overloaded constructor to accept clock, maximum size, eviction policy and value codec parameters
+    public SimpleAgedCache(Clock cacheClock, int maximumSize, EvictionPolicy policy, ValueCodec codec) {
+        this(Ticker.of(cacheClock), maximumSize, policy, codec);
+    }
+
+    // overloaded constructor for a bounded cache with values on heap
+    public SimpleAgedCache(Clock cacheClock, int maximumSize, EvictionPolicy policy) {
+        this(cacheClock, maximumSize, policy, null);
+    }
+
+    // overloaded constructor for an unbounded cache with values off heap
+    public SimpleAgedCache(Clock cacheClock, ValueCodec codec) {
+        this(cacheClock, UNBOUNDED, EvictionPolicy.LRU, codec);
+    }
+
+    // overloaded constructor for a bounded cache on the default clock
+    public SimpleAgedCache(int maximumSize, EvictionPolicy policy) {
+        this(Clock.systemUTC(), maximumSize, policy);
+    }
+
+    // overloaded constructor for an unbounded cache on a ticker, such as Ticker.cached()
+    public SimpleAgedCache(Ticker ticker) {
+        this(ticker, UNBOUNDED, EvictionPolicy.LRU, null);
+    }
 
     // constructor to accept clock parameter
     public SimpleAgedCache(Clock cacheClock) {
-        this.cacheClock = cacheClock;
+        this(cacheClock, UNBOUNDED, EvictionPolicy.LRU); // an unbounded cache never consults its policy
     }
 
     // overloaded constructor for default value handling
@@ -23,120 +141,358 @@ public class SimpleAgedCache {
         this(Clock.systemUTC()); // provides default clock if none provided
     }
 
-    private static class ExpirableEntry {
-        // an internal class to handle entries meant to expire over time
-        private final Object value;
-        private final int maxDurationInMillis;
-        private final Clock cacheClock;
-        private final long creationTime;
-
-        // constructor to accept parameters
-        private ExpirableEntry(Object value, int maxDurationInMillis, Clock cacheClock) {
-            this.value = value;
-            this.maxDurationInMillis = maxDurationInMillis;
-            this.cacheClock = cacheClock;
-            this.creationTime = cacheClock.instant().toEpochMilli();
-        }
-
-        public boolean isExpired() {
-            //Description:
-            //   a class method that checks if the entry has expired
-            //   expiration is determined by finding entry age and comparing to maxDurationInMillis
-            //Parameters:
-            //   N/A
-            //Returns:
-            //   a boolean
-            boolean expired = (cacheClock.instant().toEpochMilli() - creationTime) >= maxDurationInMillis;
-            return expired;
-        }
-    }  
+    static int spread(Object key) {
+        //Description:
+        //   a method to mix the bits of a key's hashCode so that keys with similar hash codes
+        //   (such as "key1", "key2") land in different slots of the table
+        //Parameters:
+        //   key | Object | a non-null key
+        //Returns:
+        //   the spread hash as int
+        int h = key.hashCode() * 0x9E3779B9; // multiply by the golden ratio to scatter low bits upward
+        return h ^ (h >>> 16);
+    }
 
     private void resizeArrays() {
-        // resize arrays by declaring new array of currentIndex+1 size
-        //    copy old array entries into new array and then insert new entry in array
-        
+        // resize arrays by doubling the entry arrays and rebuilding the slot table
+        //    the table is kept at twice the entry capacity, so the load factor never exceeds one half
+
         // handling for initial case when size is 0
-        int newSize = (keys.length == 0) ? (1) : (keys.length * 2);
+        int newSize = (keys.length == 0) ? (INITIAL_CAPACITY) : (keys.length * 2);
 
         // inline if for java takes the form of (boolean condition) ? (true return) : (false return)
         //    unusually illegible quirk of the language
 
         String[] newKeys = new String[newSize];
         Object[] newValues = new Object[newSize];
+        int[] newHashes = new int[newSize];
+        long[] newDeadlines = new long[newSize];
 
-        // java has no .indices property for arrays, so a length range iteration must be used
-        for (int i = 0; i < keys.length; i++){
-            newKeys[i] = keys[i];
-            newValues[i] = values[i];
-        }
+        // entries keep their index, so only the slot table has to be rebuilt
+        System.arraycopy(keys, 0, newKeys, 0, keys.length);
+        System.arraycopy(values, 0, newValues, 0, values.length);
+        System.arraycopy(hashes, 0, newHashes, 0, hashes.length);
+        System.arraycopy(deadlines, 0, newDeadlines, 0, deadlines.length);
 
         keys = newKeys;
         values = newValues;
+        hashes = newHashes;
+        deadlines = newDeadlines;
+        freeEntries = Arrays.copyOf(freeEntries, newSize); // putAll may grow ahead of need, so released entries are kept
+        expiryWheel.resize(newSize);
+        if (stats != null) {
+            stats.recordResize();
+        }
+        if (evictor != null) {
+            evictor.resize(newSize);
+        }
+        if (offHeapStore != null) {
+            valueRefs = Arrays.copyOf(valueRefs, newSize);
+        }
+        if (idleTimes != null) {
+            idleTimes = Arrays.copyOf(idleTimes, newSize);
+        }
+
+        slots = new int[newSize * 2];
+        int mask = slots.length - 1;
+        for (int entry = 0; entry < highWaterMark; entry++) {
+            if (keys[entry] == null) {
+                continue;
+            }
+            int slot = hashes[entry] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
     }
 
-    private void removeAt(int index){
-        // eject key, value pair from keys, values arrays
-        // eject by copying the array entries excluding the dropped entry
-        //    and assigning the array entries to an array of one size less than the original array          
-        
-        int newSize = keys.length - 1;
-        String[] newKeys = new String[newSize];
-        Object[] newValues = new Object[newSize];
+    private int slotOf(String key, int hash) {
+        //Description:
+        //   a method to find the table slot holding the given key using linear probing
+        //Parameters:
+        //   key | String | the key to look for
+        //   hash | int | the spread hash of the key
+        //Returns:
+        //   the slot index when found
+        //   -1 when the key is not in the table
+        if (slots.length == 0) {
+            return -1;
+        }
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int entry = slots[slot] - 1;
+            if (entry == -1) {
+                return -1; // an empty slot ends the probe sequence
+            }
+            if ((hashes[entry] == hash) && (key.equals(keys[entry]))) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
 
-        for (int i = 0; i < index; i++) {
-        // for indices below the expelled index
-            newKeys[i] = keys[i];
-            newValues[i] = values[i];
+    private int liveSlotOf(String key, int hash) {
+        //Description:
+        //   a method to find the table slot of a key whose entry has not expired, for writers about to store the key
+        //   an expired entry still in the table, as deferred maintenance leaves them, is removed on the spot
+        //Parameters:
+        //   key | String | the key to look for
+        //   hash | int | the spread hash of the key
+        //Returns:
+        //   the slot index when a live entry is found
+        //   -1 when the key is absent or its entry had expired
+        int slot = this.slotOf(key, hash);
+        if ((slot == -1) || !isExpired(slots[slot] - 1)) {
+            return slot;
         }
-        for (int i = index +1; i < keys.length; i++) {
-        // for indices above the expelled index
-            newKeys[i - 1] = keys[i];
-            newValues[i - 1] = values[i];
+        if (isIdleTimed(slots[slot] - 1)) {
+            this.drainAccessBuffer(); // a buffered read may have kept it alive
+            if (!isExpired(slots[slot] - 1)) {
+                return slot;
+            }
         }
+        removeAt(slot, RemovalCause.EXPIRED);
+        if (stats != null) {
+            stats.recordExpiration();
+        }
+        return -1;
+    }
 
-        keys = newKeys;
-        values = newValues;
+    private void removeAt(int slot, RemovalCause cause) {
+        // eject the entry held in the given table slot
+        // the slot is emptied with backward-shift deletion: later members of the probe run are moved
+        //    up into the hole so lookups never need tombstones, and the entry index is returned to the free stack
+        // listeners are handed the entry once the cache is consistent again
+        int mask = slots.length - 1;
+        int entry = slots[slot] - 1;
+        String removedKey = keys[entry];
+        long removedDeadline = deadlines[entry];
+        boolean demoted = (demotion != null) && (cause == RemovalCause.EVICTED);
+        Object removedValue = ((listeners.length == 0) && !demoted) ? null : valueAt(entry); // decoded before its memory is released
+
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (slots[next] != 0) {
+            int home = hashes[slots[next] - 1] & mask;
+            // the entry at next may move into the hole only if its home slot is not between the hole and next
+            boolean movable = (hole <= next)
+                    ? ((home <= hole) || (home > next))
+                    : ((home <= hole) && (home > next));
+            if (movable) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots[hole] = 0;
+
+        expiryWheel.deschedule(entry);
+        if (evictor != null) {
+            evictor.recordRemoval(entry);
+        }
+        if (offHeapStore != null) {
+            offHeapStore.release(valueRefs[entry]);
+        }
+        keys[entry] = null;
+        values[entry] = null;
+        freeEntries[freeCount++] = entry;
         currentIndex--; // decrement the currentIndex to account for drop
+
+        if (demoted) {
+            demotion.demote(removedKey, removedValue, removedDeadline);
+        }
+        for (int i = 0; i < listeners.length; i++) {
+            notifyRemoval(listeners[i], listenerExecutors[i], removedKey, removedValue, cause);
+        }
+    }
+
+    private static void notifyRemoval(RemovalListener listener, Executor executor,
+                                      String key, Object value, RemovalCause cause) {
+        // run one listener on its executor, reporting its failures without letting them reach the cache
+        executor.execute(() -> {
+            try {
+                listener.onRemoval(key, value, cause);
+            } catch (RuntimeException | Error failure) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, failure);
+            }
+        });
+    }
+
+    public void addRemovalListener(RemovalListener listener, Executor executor) {
+        //Description:
+        //   a class method to register a listener for entries leaving the cache
+        //   each removal is submitted to the executor as its own task, so delivery order across
+        //   removals is only preserved by an executor that runs tasks in order
+        //Parameters:
+        //   listener | RemovalListener | told the key, value and cause of each removal
+        //   executor | Executor | runs the listener; Runnable::run calls it on the removing thread
+        //Returns:
+        //   void
+        if ((listener == null) || (executor == null)) {
+            throw new IllegalArgumentException("listener and executor cannot be null");
+        }
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listenerExecutors = Arrays.copyOf(listenerExecutors, listenerExecutors.length + 1);
+        listeners[listeners.length - 1] = listener;
+        listenerExecutors[listenerExecutors.length - 1] = executor;
+    }
+
+    void demoteTo(Demotion demotion) {
+        // hand evicted entries to a lower tier instead of dropping them, as TieredAgedCache does
+        this.demotion = demotion;
+    }
+
+    public void addRemovalListener(RemovalListener listener) {
+        // register a listener that runs on the common fork-join pool
+        this.addRemovalListener(listener, ForkJoinPool.commonPool());
+    }
+
+    private void removeExpiredEntries(long now) {
+        //Description:
+        //   a method to remove expired entries
+        //   the expiry wheel is advanced to the current time and hands back only the entries whose
+        //   deadline has passed, so the cost depends on how many expired rather than how many are live
+        //Parameters:
+        //   now | long | the current epoch millisecond
+        //Returns:
+        //   void
+
+        // buffered reads may have pushed deadlines back, and the wheel must see them before it expires anything
+        this.drainAccessBuffer();
+        if (deferredMaintenance) {
+            return; // left to maintain
+        }
+        // the wheel only queues what it expires; removal, and with it any listener run inline, waits until
+        //    the wheel pass is over, so a listener that calls back into the cache never meets a half-walked bucket
+        long start = (stats == null) ? 0 : System.nanoTime();
+        expiryWheel.advance(now, deadlines, deferral);
+        this.removePending(Integer.MAX_VALUE);
+        if (stats != null) {
+            stats.recordExpiryPass(System.nanoTime() - start);
+        }
     }
 
-    private void removeExpiredEntries() {
+    public void deferMaintenance() {
         //Description:
-        //   a method to check the values array and remove expired entries
+        //   a class method to take expiry cleanup out of put, get and size
+        //   from then on expired entries read as absent but stay in place until maintain removes them, so
+        //   the caller must call maintain regularly; there is no switching back
         //Parameters:
         //   N/A
         //Returns:
         //   void
-        int i = 0;
-        while (i < currentIndex) {
-            Object value = values[i];
-            if ((value instanceof ExpirableEntry) && ((ExpirableEntry) value).isExpired()) {
-                removeAt(i);
-            } else {
-                i++;
+        this.deferredMaintenance = true;
+    }
+
+    public boolean maintain(int maxRemovals) {
+        //Description:
+        //   a class method that removes up to maxRemovals expired entries
+        //   the expiry wheel is advanced to the current time and the entries it hands back are queued, so a
+        //   call does a bounded amount of removal work and the rest waits for the next call
+        //Parameters:
+        //   maxRemovals | Int | the most entries to remove in this call
+        //Returns:
+        //   true when expired entries are still queued, false when the cache is clean
+        if (maxRemovals <= 0) {
+            throw new IllegalArgumentException("maxRemovals must be positive");
+        }
+        long start = (stats == null) ? 0 : System.nanoTime();
+        long now = ticker.millis();
+        this.drainAccessBuffer();
+        expiryWheel.advance(now, deadlines, deferral);
+
+        this.removePending(maxRemovals);
+        if (stats != null) {
+            stats.recordExpiryPass(System.nanoTime() - start);
+        }
+        return pendingCount > 0;
+    }
+
+    private void removePending(int maxRemovals) {
+        //Description:
+        //   a method to remove up to maxRemovals of the entries the expiry wheel has queued
+        //   the queue is read afresh on every turn, so a listener that calls back into the cache, and so queues
+        //   or removes entries itself, leaves it consistent
+        //Parameters:
+        //   maxRemovals | int | the most entries to remove
+        //Returns:
+        //   void
+        int removed = 0;
+        while ((pendingCount > 0) && (removed < maxRemovals)) {
+            int entry = pendingExpirations[--pendingCount];
+            // a queued entry may since have been removed, or its index reused by an entry that is still live
+            if ((keys[entry] == null) || (deadlines[entry] > expiryWheel.currentTime())) {
+                continue;
             }
+            this.expireEntry(entry);
+            removed++;
+        }
+    }
+
+    private void deferExpiry(int entry) {
+        // callback for the expiry wheel; removal waits for removePending, after the wheel pass
+        //    an index can be queued twice if its entry was removed and the index reused before the batch reached it
+        if (pendingCount == pendingExpirations.length) {
+            pendingExpirations = Arrays.copyOf(pendingExpirations, Math.max(INITIAL_CAPACITY, pendingCount * 2));
         }
+        pendingExpirations[pendingCount++] = entry;
     }
 
-    private int indexOf(Object[] array, Object element) {
+    private void recordAccess(int entry, long now) {
         //Description:
-        //   A method intended to mimic the behavior of Kotlin's array.indexOf() method for arrays.
-        //   the method should return the index of an element in an array
-        //   and return -1 when the element is not found
-        //   due to exception handling in the SimpleagedKache class put method, this method can ignore null elements
+        //   a method to note a read of an expire-after-access entry, for drainAccessBuffer to apply later
+        //   repeated reads of the same entry within a millisecond are recorded once
         //Parameters:
-        //   array | Object[] | an array that accepts object type
-        //   element | Object | an element of object type to be checked for existence in the array
+        //   entry | int | the entry index
+        //   now | long | the epoch millisecond of the read
+        //Returns:
+        //   void
+        if ((accessCount > 0) && (accessEntries[accessCount - 1] == entry) && (accessTimes[accessCount - 1] == now)) {
+            return;
+        }
+        if (accessCount == ACCESS_BUFFER_SIZE) {
+            this.drainAccessBuffer();
+        }
+        accessEntries[accessCount] = entry;
+        accessTimes[accessCount] = now;
+        accessCount++;
+    }
+
+    private void drainAccessBuffer() {
+        //Description:
+        //   a method to move the deadline of every entry read since the last drain to its last read plus its idle time
+        //   entries are left in their wheel bucket; when the bucket comes due the wheel finds the later deadline
+        //   and files the entry again, so a drain costs one array write per read
+        //   a record may outlive its entry and name a reused index, but it predates the new entry's own
+        //   deadline and so can never move it
+        //Parameters:
+        //   N/A
         //Returns:
-        //   the index of the element when found
-        //   -1 when element not found in array
-        for (int i = 0; i < array.length; i++) {
-            if ( (element != null) && (element.equals(array[i])) ){
-                return i;
+        //   void
+        for (int i = 0; i < accessCount; i++) {
+            int entry = accessEntries[i];
+            if ((keys[entry] == null) || (idleTimes[entry] == 0)) {
+                continue;
+            }
+            long deadline = accessTimes[i] + idleTimes[entry];
+            if (deadline > deadlines[entry]) {
+                deadlines[entry] = deadline;
             }
         }
-        return -1;
+        accessCount = 0;
+    }
+
+    private void expireEntry(int entry) {
+        // callback for the expiry wheel; the entry is already out of the wheel and only needs its slot freed
+        removeAt(slotOf(keys[entry], hashes[entry]), RemovalCause.EXPIRED);
+        if (stats != null) {
+            stats.recordExpiration();
+        }
     }
-    
+
     public int size() {
         //Description:
         //   a class method that checks cache size
@@ -145,37 +501,40 @@ public class SimpleAgedCache {
         //Returns:
         //   the size of the cache as Int
         //Note:
-        // cache size is assumed to be equal to currentIndex as array size varies ahead of cache growth
-        
+        // cache size is tracked in currentIndex as the arrays are sized ahead of cache growth
+        // with deferred maintenance nothing is cleaned here, so expired entries awaiting maintain are counted
+
         // Clean up expired entries
-        this.removeExpiredEntries();
+        this.removeExpiredEntries(ticker.millis());
 
         return currentIndex;
     }
 
-    public boolean isEmpty() {
+    public int exactSize() {
         //Description:
-        //   a class method that checks if the cache is empty
+        //   a class method that counts only live entries, removing every expired one first
+        //   the same as size unless maintenance is deferred, in which case it does the whole sweep at once
         //Parameters:
         //   N/A
         //Returns:
-        //   true/false based on if length of cache is/is not 0; Boolean
-        return this.size() == 0;  
+        //   the number of live entries as Int
+        this.maintain(Integer.MAX_VALUE);
+        return currentIndex;
     }
 
-    private boolean isDuplicateKey(String key){
+    public boolean isEmpty() {
         //Description:
-        //   a method to check if a key is already present in the keys array
+        //   a class method that checks if the cache is empty
         //Parameters:
-        //   key | String | a String to be checked for existence in our keys array
+        //   N/A
         //Returns:
-        //   boolean; True if key found in array, False if key not found in array
-        return (this.indexOf(keys, key) != -1);
+        //   true/false based on if length of cache is/is not 0; Boolean
+        return this.size() == 0;
     }
 
     public void put(String key, Object value, int retentionInMillis) {
-        //Description: 
-        //   a class method for inserting a key-value 
+        //Description:
+        //   a class method for inserting a key-value
         //   pair and length of retention
         //Parameters:
         //   key | string | the string for index-retrieval of the stored value
@@ -183,9 +542,44 @@ public class SimpleAgedCache {
         //   retentionInMillis | Int | retention age in milliseconds
         //Returns:
         //   void
+        if (stats == null) {
+            this.store(key, value, retentionInMillis, ExpiryMode.AFTER_WRITE);
+            return;
+        }
+        long start = System.nanoTime();
+        this.store(key, value, retentionInMillis, ExpiryMode.AFTER_WRITE);
+        stats.recordPut(System.nanoTime() - start);
+    }
+
+    public void put(String key, Object value, int retentionInMillis, ExpiryMode mode) {
+        //Description:
+        //   a class method for inserting a key-value pair whose retention is counted from its last write or read
+        //Parameters:
+        //   key | string | the string for index-retrieval of the stored value
+        //   value | any? | the stored value, can be arbitrary type
+        //   retentionInMillis | Int | retention age in milliseconds, 0 for a permanent entry
+        //   mode | ExpiryMode | AFTER_WRITE for a fixed retention, AFTER_ACCESS to extend it on every get
+        //Returns:
+        //   void
+        if (mode == null) {
+            throw new IllegalArgumentException("mode cannot be null");
+        }
+        if (stats == null) {
+            this.store(key, value, retentionInMillis, mode);
+            return;
+        }
+        long start = System.nanoTime();
+        this.store(key, value, retentionInMillis, mode);
+        stats.recordPut(System.nanoTime() - start);
+    }
+
+    private void store(String key, Object value, int retentionInMillis, ExpiryMode mode) {
+        // the body of put, kept apart so that timing it costs nothing when stats are disabled
 
         // Clean up expired entries
-        this.removeExpiredEntries();
+        //    the clock is read once and the same reading also dates the new entry
+        long now = ticker.millis();
+        this.removeExpiredEntries(now);
 
         // disallow key-value pair assignment of null values
         if (value == null){
@@ -196,28 +590,266 @@ public class SimpleAgedCache {
             throw new IllegalArgumentException("key cannot be null");
         }
         // disallow duplicate key entries in keys array
-        if (this.isDuplicateKey(key)){
+        int hash = spread(key);
+        if (this.liveSlotOf(key, hash) != -1){
+            throw new IllegalArgumentException("key already exists in the array");
+        }
+
+        // an entry whose retention has already elapsed would be expired on arrival, so it is never stored
+        if (retentionInMillis < 0) {
+            return;
+        }
+
+        // encode before touching any array, so a value the codec rejects leaves the cache unchanged
+        long valueRef = (offHeapStore != null) ? offHeapStore.store(codec.encode(value)) : 0;
+
+        long deadline = (retentionInMillis == 0) ? PERMANENT : (now + retentionInMillis);
+        int idleTime = (mode == ExpiryMode.AFTER_ACCESS) ? retentionInMillis : 0;
+        this.insert(key, hash, value, valueRef, deadline, idleTime);
+    }
+
+    void putUntil(String key, Object value, long deadline) {
+        //Description:
+        //   a method for inserting a key-value pair that expires at a given deadline rather than after a retention,
+        //   used to bring an entry back from a lower tier with the time it had left
+        //Parameters:
+        //   key | String | a key not already in the cache
+        //   value | any? | the stored value
+        //   deadline | long | the epoch millisecond at which the entry expires, Long.MAX_VALUE for never
+        //Returns:
+        //   void
+        long now = ticker.millis();
+        this.removeExpiredEntries(now);
+        if ((key == null) || (value == null)) {
+            throw new IllegalArgumentException("key and value cannot be null");
+        }
+        int hash = spread(key);
+        if (this.liveSlotOf(key, hash) != -1) {
             throw new IllegalArgumentException("key already exists in the array");
         }
+        if (deadline <= now) {
+            return;
+        }
+        long valueRef = (offHeapStore != null) ? offHeapStore.store(codec.encode(value)) : 0;
+        this.insert(key, hash, value, valueRef, deadline, 0);
+        if (stats != null) {
+            stats.recordPuts(1);
+        }
+    }
+
+    public void putAll(String[] batchKeys, Object[] batchValues, int retentionInMillis) {
+        //Description:
+        //   a class method for inserting many key-value pairs with the same length of retention
+        //   expired entries are cleaned up once for the whole batch, and the arrays are grown once up front
+        //   the whole batch is checked before anything is stored, so a batch with a null, a key already
+        //   in the cache or a key repeated within the batch throws and leaves the cache unchanged
+        //Parameters:
+        //   batchKeys | String[] | the keys to insert
+        //   batchValues | any?[] | the values to insert, in the same order as the keys
+        //   retentionInMillis | Int | retention age in milliseconds, applied to every entry
+        //Returns:
+        //   void
+        if ((batchKeys == null) || (batchValues == null)) {
+            throw new IllegalArgumentException("keys and values cannot be null");
+        }
+        if (batchKeys.length != batchValues.length) {
+            throw new IllegalArgumentException("keys and values must have the same length");
+        }
+
+        // Clean up expired entries once for the batch
+        long now = ticker.millis();
+        this.removeExpiredEntries(now);
+
+        int count = batchKeys.length;
+        int[] batchHashes = new int[count];
+        for (int i = 0; i < count; i++) {
+            if (batchValues[i] == null) {
+                throw new IllegalArgumentException("value cannot be null");
+            }
+            if (batchKeys[i] == null) {
+                throw new IllegalArgumentException("key cannot be null");
+            }
+            batchHashes[i] = spread(batchKeys[i]);
+            if (this.liveSlotOf(batchKeys[i], batchHashes[i]) != -1) {
+                throw new IllegalArgumentException("key already exists in the array");
+            }
+        }
+        if (hasDuplicate(batchKeys, batchHashes)) {
+            throw new IllegalArgumentException("key appears more than once in the batch");
+        }
+
+        // an entry whose retention has already elapsed would be expired on arrival, so it is never stored
+        if (retentionInMillis < 0) {
+            return;
+        }
+
+        // encode every value before touching any array; if the codec rejects one, the ones already stored are released
+        long[] batchRefs = null;
+        if (offHeapStore != null) {
+            batchRefs = new long[count];
+            int stored = 0;
+            try {
+                for (; stored < count; stored++) {
+                    batchRefs[stored] = offHeapStore.store(codec.encode(batchValues[stored]));
+                }
+            } catch (RuntimeException rejected) {
+                for (int i = 0; i < stored; i++) {
+                    offHeapStore.release(batchRefs[i]);
+                }
+                throw rejected;
+            }
+        }
+
+        // Resize arrays once for the whole batch
+        //    a bounded cache evicts as it goes, so it never holds more than one entry over its maximum
+        long needed = Math.min((long) currentIndex + count, (long) maximumSize + 1);
+        while (keys.length < needed) {
+            this.resizeArrays();
+        }
+
+        long deadline = (retentionInMillis == 0) ? PERMANENT : (now + retentionInMillis);
+        for (int i = 0; i < count; i++) {
+            this.insert(batchKeys[i], batchHashes[i], batchValues[i], (batchRefs == null) ? 0 : batchRefs[i], deadline, 0);
+        }
+        if (stats != null) {
+            stats.recordPuts(count);
+        }
+    }
+
+    private static boolean hasDuplicate(String[] batchKeys, int[] batchHashes) {
+        // check a batch for repeated keys with a throwaway open-addressing table of batch positions
+        int[] table = new int[Integer.highestOneBit(Math.max(batchKeys.length, 1) * 2 - 1) * 2];
+        int mask = table.length - 1;
+        for (int i = 0; i < batchKeys.length; i++) {
+            int slot = batchHashes[i] & mask;
+            while (table[slot] != 0) {
+                int other = table[slot] - 1;
+                if ((batchHashes[other] == batchHashes[i]) && batchKeys[other].equals(batchKeys[i])) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+        return false;
+    }
+
+    private void insert(String key, int hash, Object value, long valueRef, long deadline, int idleTime) {
+        //Description:
+        //   a method to store a checked key-value pair, shared by put and putAll
+        //   the key must not be in the cache and the value must already be encoded when kept off heap
+        //Parameters:
+        //   key | String | the key of the new entry
+        //   hash | int | the spread hash of the key
+        //   value | any? | the stored value, when kept on heap
+        //   valueRef | long | the off-heap reference of the value, when kept off heap
+        //   deadline | long | the epoch millisecond at which the entry expires, PERMANENT for never
+        //   idleTime | int | the idle retention of an expire-after-access entry, 0 for a fixed deadline
+        //Returns:
+        //   void
 
         // Resize arrays if necessary
         if (currentIndex >= keys.length) {
             this.resizeArrays();
         }
 
-        // add new entry
-        keys[currentIndex] = key;
+        // take a released entry index if there is one, otherwise the next unused index
+        int entry = (freeCount > 0) ? (freeEntries[--freeCount]) : (highWaterMark++);
 
-        if (retentionInMillis == 0) {
-            // retentionInMillis is not specified
-            // values entry should not be an ExpirableEntry and can take value parameter
-            values[currentIndex] = value;
+        // add new entry
+        keys[entry] = key;
+        hashes[entry] = hash;
+        if (offHeapStore != null) {
+            valueRefs[entry] = valueRef; // off-heap entries keep only a reference on heap
         } else {
-            // retentionInMillis is specified
-            values[currentIndex] = new ExpirableEntry(value, retentionInMillis, cacheClock);    
+            values[entry] = value;
         }
+
+        // only the first expire-after-access entry pays for the idle time array
+        if ((idleTime != 0) && (idleTimes == null)) {
+            idleTimes = new int[keys.length];
+        }
+        if (idleTimes != null) {
+            idleTimes[entry] = idleTime;
+        }
+
+        // permanent entries stay out of the expiry wheel
+        deadlines[entry] = deadline;
+        if (deadline != PERMANENT) {
+            expiryWheel.schedule(entry, deadline);
+        }
+
+        // link the entry into the first empty slot of its probe sequence
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry + 1;
+
         //increment currentIndex
         currentIndex++;
+
+        // a bounded cache that has grown past its maximum gives up the entry its policy chooses
+        if (evictor != null) {
+            evictor.recordInsert(entry, hash);
+            if (currentIndex > maximumSize) {
+                int victim = evictor.victim();
+                removeAt(slotOf(keys[victim], hashes[victim]), RemovalCause.EVICTED);
+                evictionCount++;
+                if (stats != null) {
+                    stats.recordEviction();
+                }
+            }
+        }
+    }
+
+    public Object[] getAll(String[] batchKeys) {
+        //Description:
+        //   a class method that returns the values for many keys at once
+        //   expired entries are cleaned up once for the whole batch and the clock is read only once,
+        //   so each key costs a single table probe; hits and misses are counted per key as in get
+        //Parameters:
+        //   batchKeys | String[] | the strings for index-retrieval of the stored values
+        //Returns:
+        //   values | any?[] | the stored value for each key in the same order, null where absent or expired
+        if (batchKeys == null) {
+            throw new IllegalArgumentException("keys cannot be null");
+        }
+        long now = ticker.millis();
+        this.removeExpiredEntries(now);
+
+        Object[] found = new Object[batchKeys.length];
+        int hits = 0;
+        for (int i = 0; i < batchKeys.length; i++) {
+            String key = batchKeys[i];
+            int hash = (key == null) ? 0 : spread(key);
+            int slot = (key == null) ? -1 : this.slotOf(key, hash);
+            if (slot == -1) {
+                missCount++;
+                continue;
+            }
+            int entry = slots[slot] - 1;
+            if (deadlines[entry] <= now) {
+                // reachable when maintenance is deferred, or when the clock moved backwards past the wheel
+                this.expireOnRead(slot);
+                missCount++;
+                continue;
+            }
+            hitCount++;
+            hits++;
+            if (evictor != null) {
+                evictor.recordAccess(entry, hash);
+            }
+            if (isIdleTimed(entry)) {
+                this.recordAccess(entry, now);
+            }
+            found[i] = valueAt(entry);
+        }
+        if (stats != null) {
+            stats.recordLookups(hits, batchKeys.length - hits);
+        }
+        return found;
     }
 
     public Object get(String key) {
@@ -226,28 +858,354 @@ public class SimpleAgedCache {
         //Parameters:
         //   key | String | the string for index-retrieval of the stored value
         //Returns:
-        //   value | Any? | the stored value for the key, can be arbitrary type 
-        
-        int index = this.indexOf(keys, key);
+        //   value | Any? | the stored value for the key, can be arbitrary type
+        if (stats == null) {
+            return this.lookup(key);
+        }
+        long start = System.nanoTime();
+        Object value = this.lookup(key);
+        stats.recordGet(value != null, System.nanoTime() - start);
+        return value;
+    }
+
+    private Object lookup(String key) {
+        // the body of get, kept apart so that timing it costs nothing when stats are disabled
+
+        // null keys are never stored
+        if (key == null) {
+            missCount++;
+            return null;
+        }
+        int hash = spread(key);
+        int slot = this.slotOf(key, hash);
+
+        // return null if key not in the table (slot of -1)
+        if (slot == -1) {
+            missCount++;
+            return null;
+        }
 
-        // return null if key not in keys array (index of -1)
-        if (index == -1) {
+        int entry = slots[slot] - 1;
+        if (isIdleTimed(entry)) {
+            return this.lookupIdleTimed(slot, entry, hash);
+        }
+        if (isExpired(entry)) {
+            // the value has expired
+            this.expireOnRead(slot);
+            missCount++;
             return null;
         }
+        hitCount++;
+        if (evictor != null) {
+            evictor.recordAccess(entry, hash);
+        }
+        return valueAt(entry);
+    }
+
+    private void expireOnRead(int slot) {
+        // remove an expired entry a read came across, unless maintenance is deferred and it is left for maintain
+        if (deferredMaintenance) {
+            return;
+        }
+        removeAt(slot, RemovalCause.EXPIRED);
+        if (stats != null) {
+            stats.recordExpiration();
+        }
+    }
+
+    private Object lookupIdleTimed(int slot, int entry, int hash) {
+        // the body of get for an expire-after-access entry, whose read is recorded to extend its deadline
+        long now = ticker.millis();
+        if ((deadlines[entry] <= now) && (accessCount > 0)) {
+            // the deadline may be behind a read still waiting in the access buffer
+            this.drainAccessBuffer();
+        }
+        if (deadlines[entry] <= now) {
+            // the value has expired
+            this.expireOnRead(slot);
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        if (evictor != null) {
+            evictor.recordAccess(entry, hash);
+        }
+        this.recordAccess(entry, now);
+        return valueAt(entry);
+    }
+
+    private boolean isIdleTimed(int entry) {
+        // whether an entry expires after access rather than at a fixed deadline
+        return (idleTimes != null) && (idleTimes[entry] != 0);
+    }
+
+    private boolean isExpired(int entry) {
+        //Description:
+        //   a method that checks if an entry has expired
+        //   expiration is determined by comparing the entry's deadline to the current time
+        //   permanent entries are answered without reading the clock
+        //Parameters:
+        //   entry | int | the entry index
+        //Returns:
+        //   a boolean
+        long deadline = deadlines[entry];
+        return (deadline != PERMANENT) && (deadline <= ticker.millis());
+    }
+
+    private Object valueAt(int entry) {
+        //Description:
+        //   a method that returns the stored value of an entry, decoding it when it lives off heap
+        //Parameters:
+        //   entry | int | the entry index
+        //Returns:
+        //   value | Any? | the stored value
+        if (offHeapStore != null) {
+            return codec.decode(offHeapStore.read(valueRefs[entry]));
+        }
+        return values[entry];   // simply return the value retrieved from values array
+    }
+
+    public long offHeapBytes() {
+        // the direct memory reserved for off-heap values, 0 when values are kept on heap
+        return (offHeapStore == null) ? 0 : offHeapStore.reservedBytes();
+    }
+
+    public long hitCount() {
+        // the number of get calls that found a live entry
+        return hitCount;
+    }
+
+    public long missCount() {
+        // the number of get calls that found no entry or an expired one
+        return missCount;
+    }
+
+    public long evictionCount() {
+        // the number of entries dropped by the eviction policy to stay within the maximum size
+        return evictionCount;
+    }
+
+    public boolean invalidate(String key) {
+        //Description:
+        //   a class method to drop the entry for a key, live or expired
+        //   listeners see EXPLICIT for a live entry and EXPIRED for one whose retention had already elapsed
+        //Parameters:
+        //   key | String | the string for index-retrieval of the stored value
+        //Returns:
+        //   true when an entry was removed, false when there was none
+        return this.remove(key, RemovalCause.EXPLICIT);
+    }
+
+    boolean remove(String key, RemovalCause cause) {
+        // drop the entry for a key, reporting the given cause unless the entry had already expired
+        if (key == null) {
+            return false;
+        }
+        int slot = this.slotOf(key, spread(key));
+        if (slot == -1) {
+            return false;
+        }
+        this.drainAccessBuffer(); // a buffered read may have kept an expire-after-access entry alive
+        removeAt(slot, isExpired(slots[slot] - 1) ? RemovalCause.EXPIRED : cause);
+        return true;
+    }
+
+    public int invalidateAll(String[] batchKeys) {
+        //Description:
+        //   a class method to drop the entries for many keys at once; absent and null keys are skipped
+        //Parameters:
+        //   batchKeys | String[] | the strings for index-retrieval of the stored values
+        //Returns:
+        //   the number of entries removed as Int
+        if (batchKeys == null) {
+            throw new IllegalArgumentException("keys cannot be null");
+        }
+        int removed = 0;
+        for (String key : batchKeys) {
+            if (this.invalidate(key)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    long expiresAt(String key) {
+        //Description:
+        //   a method to look up when the entry for a key expires, without touching it
+        //   like peek it reads no access buffer, so it only answers for fixed-expiry entries
+        //Parameters:
+        //   key | String | the string for index-retrieval of the stored value
+        //Returns:
+        //   the epoch millisecond deadline of an expiring entry
+        //   Long.MAX_VALUE for a permanent entry
+        //   0 when there is no entry
+        if (key == null) {
+            return 0;
+        }
+        int slot = this.slotOf(key, spread(key));
+        if (slot == -1) {
+            return 0;
+        }
+        int entry = slots[slot] - 1;
+        requireFixedExpiry(entry);
+        return deadlines[entry]; // PERMANENT is Long.MAX_VALUE
+    }
+
+    public int snapshotTo(Path path) throws IOException {
+        //Description:
+        //   a class method that writes every live entry to a snapshot file, encoding values with the cache's codec
+        //   only an off-heap cache has a codec of its own; an on-heap cache must be given one
+        //Parameters:
+        //   path | Path | the file to write; an existing file is replaced only once the snapshot is complete
+        //Returns:
+        //   the number of entries written as Int
+        if (codec == null) {
+            throw new IllegalStateException("an on-heap cache needs a ValueCodec to snapshot its values");
+        }
+        return this.snapshotTo(path, codec);
+    }
+
+    public int snapshotTo(Path path, ValueCodec valueCodec) throws IOException {
+        //Description:
+        //   a class method that writes every live entry with its deadline to a snapshot file
+        //   expired entries are cleaned up first; off-heap values already encoded with valueCodec are copied
+        //   to the file as they are
+        //   expire-after-access entries are written with their current deadline and restore as fixed-retention entries
+        //Parameters:
+        //   path | Path | the file to write; an existing file is replaced only once the snapshot is complete
+        //   valueCodec | ValueCodec | encodes the values into the file
+        //Returns:
+        //   the number of entries written as Int
+        if ((path == null) || (valueCodec == null)) {
+            throw new IllegalArgumentException("path and valueCodec cannot be null");
+        }
+        long now = ticker.millis();
+        this.removeExpiredEntries(now);
+
+        int written = 0;
+        try (SnapshotFile.Writer writer = new SnapshotFile.Writer(path, now)) {
+            for (int entry = 0; entry < highWaterMark; entry++) {
+                if ((keys[entry] == null) || (deadlines[entry] <= now)) {
+                    continue; // a released entry index, or an expired entry left for deferred maintenance
+                }
+                ByteBuffer encoded;
+                if ((offHeapStore != null) && (valueCodec == codec)) {
+                    encoded = offHeapStore.read(valueRefs[entry]);
+                } else {
+                    encoded = ByteBuffer.wrap(valueCodec.encode(valueAt(entry)));
+                }
+                writer.write(keys[entry], deadlines[entry], encoded);
+                written++;
+            }
+            writer.finish();
+        }
+        return written;
+    }
+
+    public int restoreFrom(Path path) throws IOException {
+        //Description:
+        //   a class method that loads a snapshot file written by snapshotTo, decoding values with the cache's codec
+        //Parameters:
+        //   path | Path | the snapshot file
+        //Returns:
+        //   the number of entries restored as Int
+        if (codec == null) {
+            throw new IllegalStateException("an on-heap cache needs a ValueCodec to restore its values");
+        }
+        return this.restoreFrom(path, codec);
+    }
+
+    public int restoreFrom(Path path, ValueCodec valueCodec) throws IOException {
+        //Description:
+        //   a class method that loads the entries of a snapshot file into the cache with their original deadlines
+        //   entries whose deadline passed since the snapshot was taken are skipped, as are keys the cache
+        //   already holds, whose values are newer than the snapshot's
+        //   the arrays are grown once for the whole file; a bounded cache evicts as the entries arrive
+        //Parameters:
+        //   path | Path | the snapshot file
+        //   valueCodec | ValueCodec | decodes the values from the file, and must match the codec they were written with
+        //Returns:
+        //   the number of entries restored as Int
+        if ((path == null) || (valueCodec == null)) {
+            throw new IllegalArgumentException("path and valueCodec cannot be null");
+        }
+        long now = ticker.millis();
+        this.removeExpiredEntries(now);
+
+        int restored = 0;
+        try (SnapshotFile.Reader reader = new SnapshotFile.Reader(path)) {
+            long needed = Math.min((long) currentIndex + reader.count(), (long) maximumSize + 1);
+            while (keys.length < needed) {
+                this.resizeArrays();
+            }
+
+            while (reader.next()) {
+                long deadline = reader.deadline();
+                if (deadline <= now) {
+                    continue; // expired while the cache was down
+                }
+                String key = reader.key();
+                int hash = spread(key);
+                if (this.liveSlotOf(key, hash) != -1) {
+                    continue;
+                }
 
-        Object value = values[index];
-        if (value instanceof ExpirableEntry) {
-            // value entry is an ExpirableEntry
-            if (((ExpirableEntry) value).isExpired()){
-                // the value has expired
-                removeAt(index);
-                return null;
+                ByteBuffer encoded = reader.value();
+                Object value = null;
+                long valueRef = 0;
+                if ((offHeapStore != null) && (valueCodec == codec)) {
+                    // the bytes are already in the cache's own encoding and are copied off heap as they are
+                    byte[] bytes = new byte[encoded.remaining()];
+                    encoded.get(bytes);
+                    valueRef = offHeapStore.store(bytes);
+                } else {
+                    value = valueCodec.decode(encoded);
+                    if (value == null) {
+                        throw new IOException("snapshot value for " + key + " decodes to null");
+                    }
+                    if (offHeapStore != null) {
+                        valueRef = offHeapStore.store(codec.encode(value));
+                    }
+                }
+                this.insert(key, hash, value, valueRef, deadline, 0);
+                restored++;
             }
-            // the value has not expired
-            return ((ExpirableEntry) value).value; // return the value property of the ExpirableEntry
         }
-        // value is not an ExpirableEntry
-        return value;   // simply return the value retrieved from values array
+        if (stats != null) {
+            stats.recordPuts(restored);
+        }
+        return restored;
+    }
+
+    Object peek(String key) {
+        //Description:
+        //   a read-only variant of get for callers that hold a shared lock
+        //   an expired entry reads as absent but is left in place for the next put or size to clean up
+        //   nothing is written, so hits and misses are not counted and the eviction policy is not told
+        //   only fixed-expiry entries can be peeked: an expire-after-access entry's deadline may be behind
+        //   reads still in the access buffer, and draining it would write under the shared lock
+        //Parameters:
+        //   key | String | the string for index-retrieval of the stored value
+        //Returns:
+        //   value | Any? | the stored value for the key, null when absent or expired
+        if (key == null) {
+            return null;
+        }
+        int slot = this.slotOf(key, spread(key));
+        if (slot == -1) {
+            return null;
+        }
+
+        int entry = slots[slot] - 1;
+        requireFixedExpiry(entry);
+        return isExpired(entry) ? null : valueAt(entry);
+    }
+
+    private void requireFixedExpiry(int entry) {
+        // reject an expire-after-access entry in a read that cannot drain the access buffer
+        if (isIdleTimed(entry)) {
+            throw new IllegalStateException("an expire-after-access entry can only be read through get");
+        }
     }
 
-}
\ No newline at end of file
+}
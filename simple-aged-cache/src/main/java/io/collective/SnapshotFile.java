@@ -0,0 +1,227 @@
+package io.collective;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+final class SnapshotFile {
+    //Description:
+    //   the binary file format behind SimpleAgedCache.snapshotTo and restoreFrom
+    //   a header of magic, version, snapshot time and entry count is followed by one record per entry:
+    //      long deadline | int key length | key as UTF-8 | int value length | value as encoded by a ValueCodec
+    //   deadlines are epoch milliseconds, Long.MAX_VALUE for a permanent entry, so a restore can drop entries
+    //   that expired while no process held them
+    //   records go through a 1 MiB direct buffer in both directions, so a file is read and written in large
+    //   sequential channel operations; a snapshot is written next to its target and moved over it when complete
+
+    private static final int MAGIC = 0x53414331; // "SAC1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+    private static final int COUNT_OFFSET = HEADER_BYTES - 4;
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final int MIN_RECORD_BYTES = 8 + 4 + 4; // deadline and the two lengths
+
+    private SnapshotFile() {
+    }
+
+    static final class Writer implements AutoCloseable {
+        private final Path target;
+        private final Path partial;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private int count = 0;
+        private boolean complete = false;
+
+        Writer(Path target, long snapshotTime) throws IOException {
+            this.target = target;
+            this.partial = target.resolveSibling(target.getFileName() + ".partial");
+            this.channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(snapshotTime).putInt(0); // the count is filled in by finish
+        }
+
+        void write(String key, long deadline, ByteBuffer value) throws IOException {
+            //Description:
+            //   a method to append one entry
+            //Parameters:
+            //   key | String | the entry's key
+            //   deadline | long | the entry's deadline in epoch milliseconds, Long.MAX_VALUE when permanent
+            //   value | ByteBuffer | the encoded value between position and limit; it is read but not moved
+            //Returns:
+            //   void
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            int valueLength = value.remaining();
+            ensureRoom(8 + 4 + keyBytes.length + 4);
+            buffer.putLong(deadline).putInt(keyBytes.length).put(keyBytes).putInt(valueLength);
+            if (valueLength <= buffer.remaining()) {
+                buffer.put(value.duplicate());
+            } else {
+                drain(); // a value larger than what is left of the buffer goes straight to the channel
+                ByteBuffer rest = value.duplicate();
+                while (rest.hasRemaining()) {
+                    channel.write(rest);
+                }
+            }
+            count++;
+        }
+
+        void finish() throws IOException {
+            // write out the tail, fill in the entry count and move the file into place
+            drain();
+            ByteBuffer countBytes = ByteBuffer.allocate(4).putInt(0, count);
+            channel.write(countBytes, COUNT_OFFSET);
+            channel.force(true);
+            channel.close();
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            complete = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // an unfinished snapshot is deleted, leaving any previous snapshot at the target untouched
+            if (!complete) {
+                channel.close();
+                Files.deleteIfExists(partial);
+            }
+        }
+
+        private void ensureRoom(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+            if (buffer.remaining() < bytes) {
+                throw new IOException("a key of " + bytes + " bytes does not fit a snapshot record");
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    static final class Reader implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final int count;
+        private int read = 0;
+        private String key;
+        private long deadline;
+        private ByteBuffer value;
+
+        Reader(Path source) throws IOException {
+            this.channel = FileChannel.open(source, StandardOpenOption.READ);
+            buffer.flip(); // start empty, fill reads the header in
+            try {
+                fill(HEADER_BYTES);
+                if (buffer.getInt() != MAGIC) {
+                    throw new IOException(source + " is not a cache snapshot");
+                }
+                int version = buffer.getInt();
+                if (version != VERSION) {
+                    throw new IOException(source + " has unsupported snapshot version " + version);
+                }
+                buffer.getLong(); // the snapshot time; deadlines are absolute, so restoring does not need it
+                this.count = buffer.getInt();
+                if ((count < 0) || (count > (channel.size() - HEADER_BYTES) / MIN_RECORD_BYTES)) {
+                    throw new IOException(source + " claims " + count + " entries, more than it can hold");
+                }
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        int count() {
+            return count;
+        }
+
+        boolean next() throws IOException {
+            //Description:
+            //   a method to step to the next entry
+            //   the value buffer is only valid until the following call
+            //Parameters:
+            //   N/A
+            //Returns:
+            //   true when an entry was read, false after the last one
+            if (read == count) {
+                return false;
+            }
+            fill(8 + 4);
+            deadline = buffer.getLong();
+            int keyLength = buffer.getInt();
+            if (keyLength < 0) {
+                throw new IOException("snapshot record has a negative key length");
+            }
+            fill(keyLength + 4);
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(keyBytes);
+            key = new String(keyBytes, StandardCharsets.UTF_8);
+            int valueLength = buffer.getInt();
+            if (valueLength < 0) {
+                throw new IOException("snapshot record has a negative value length");
+            }
+            if (valueLength <= BUFFER_BYTES) {
+                fill(valueLength);
+                value = buffer.slice(buffer.position(), valueLength);
+                buffer.position(buffer.position() + valueLength);
+            } else {
+                // a value larger than the buffer is read on its own
+                ByteBuffer large = ByteBuffer.allocate(valueLength);
+                large.put(buffer.slice(buffer.position(), Math.min(buffer.remaining(), valueLength)));
+                buffer.position(buffer.position() + large.position());
+                while (large.hasRemaining()) {
+                    if (channel.read(large) == -1) {
+                        throw new EOFException("snapshot is truncated");
+                    }
+                }
+                value = large.flip();
+            }
+            read++;
+            return true;
+        }
+
+        String key() {
+            return key;
+        }
+
+        long deadline() {
+            return deadline;
+        }
+
+        ByteBuffer value() {
+            return value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void fill(int bytes) throws IOException {
+            // make at least the given number of bytes readable, keeping the unread ones
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            if (bytes > BUFFER_BYTES) {
+                throw new IOException("snapshot record of " + bytes + " bytes is corrupt");
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) == -1) {
+                    throw new EOFException("snapshot is truncated");
+                }
+            }
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package io.collective;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class StatsRecorder implements CacheStatsMXBean {
+    //Description:
+    //   optional instrumentation for SimpleAgedCache and ConcurrentAgedCache
+    //   counters are LongAdders and latencies go to power-of-two histograms, so one recorder can be shared
+    //   by every stripe of a concurrent cache without the stripes contending on it
+    //   a cache built without a recorder skips all of this behind a single null check, and does not read
+    //   the nanosecond clock at all
+    //   read it with snapshot, or over JMX once registered with registerMBean
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder resizes = new LongAdder();
+    private final LongAdder expiryNanos = new LongAdder();
+    private final LatencyHistogram getLatencies = new LatencyHistogram();
+    private final LatencyHistogram putLatencies = new LatencyHistogram();
+
+    void recordGet(boolean hit, long nanos) {
+        (hit ? hits : misses).increment();
+        getLatencies.record(nanos);
+    }
+
+    void recordLookups(int hitCount, int missCount) {
+        // hits and misses of a batch lookup, which has no per-key latency
+        hits.add(hitCount);
+        misses.add(missCount);
+    }
+
+    void recordPut(long nanos) {
+        puts.increment();
+        putLatencies.record(nanos);
+    }
+
+    void recordPuts(int count) {
+        puts.add(count);
+    }
+
+    void recordExpiration() {
+        expirations.increment();
+    }
+
+    void recordEviction() {
+        evictions.increment();
+    }
+
+    void recordResize() {
+        resizes.increment();
+    }
+
+    void recordExpiryPass(long nanos) {
+        expiryNanos.add(nanos);
+    }
+
+    public CacheStats snapshot() {
+        //Description:
+        //   a class method that copies the current counters and histograms
+        //Parameters:
+        //   N/A
+        //Returns:
+        //   the counters as an immutable CacheStats
+        return new CacheStats(hits.sum(), misses.sum(), puts.sum(), expirations.sum(), evictions.sum(),
+                resizes.sum(), expiryNanos.sum(), getLatencies.snapshot(), getLatencies.totalNanos(),
+                putLatencies.snapshot(), putLatencies.totalNanos());
+    }
+
+    public ObjectName registerMBean(String name) {
+        //Description:
+        //   a class method that publishes this recorder on the platform MBean server
+        //Parameters:
+        //   name | String | the cache name, used as the name key of io.collective:type=CacheStats
+        //Returns:
+        //   the ObjectName it was registered under, for unregistering
+        try {
+            ObjectName objectName = new ObjectName("io.collective:type=CacheStats,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalArgumentException("cannot register cache stats as " + name, e);
+        }
+    }
+
+    public void unregisterMBean(ObjectName objectName) {
+        // remove a registration made by registerMBean; unknown names are ignored
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalArgumentException("cannot unregister " + objectName, e);
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long requests = hitCount + misses.sum();
+        return (requests == 0) ? 1.0 : ((double) hitCount / requests);
+    }
+
+    @Override
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    @Override
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getResizeCount() {
+        return resizes.sum();
+    }
+
+    @Override
+    public long getExpiryNanos() {
+        return expiryNanos.sum();
+    }
+
+    @Override
+    public long getGetLatencyP50Nanos() {
+        return LatencyHistogram.percentile(getLatencies.snapshot(), 0.5);
+    }
+
+    @Override
+    public long getGetLatencyP99Nanos() {
+        return LatencyHistogram.percentile(getLatencies.snapshot(), 0.99);
+    }
+
+    @Override
+    public long getPutLatencyP50Nanos() {
+        return LatencyHistogram.percentile(putLatencies.snapshot(), 0.5);
+    }
+
+    @Override
+    public long getPutLatencyP99Nanos() {
+        return LatencyHistogram.percentile(putLatencies.snapshot(), 0.99);
+    }
+}
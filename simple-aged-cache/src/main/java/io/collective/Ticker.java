@@ -0,0 +1,26 @@
+package io.collective;
+
+import java.time.Clock;
+
+public interface Ticker {
+    //Description:
+    //   the time source SimpleAgedCache reads for deadlines and expiry checks
+    //   a ticker only has to answer the current epoch millisecond, and does so without allocating;
+    //   tests can drive expiry with any Clock through of, or with a lambda over a plain long
+    //   cached trades up to a millisecond of precision for reads of a single volatile field
+
+    long millis();
+
+    static Ticker of(Clock clock) {
+        // a ticker reading the given clock on every call; Clock.millis on the system clock builds no Instant
+        if (clock == null) {
+            throw new IllegalArgumentException("clock cannot be null");
+        }
+        return clock::millis;
+    }
+
+    static Ticker cached() {
+        // the shared cached ticker over the system clock, started on first use and kept for the life of the JVM
+        return CachedTicker.system();
+    }
+}
@@ -0,0 +1,197 @@
+package io.collective;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+public class TieredAgedCache implements AutoCloseable {
+    //Description:
+    //   a two-tier aged cache for working sets larger than the heap it may use
+    //   the memory tier is a bounded SimpleAgedCache; entries its eviction policy drops are encoded with a
+    //   ValueCodec and demoted to a disk tier, an append-only log of memory-mapped segment files
+    //   a miss in memory checks the disk tier, and an entry found there is promoted back into memory with
+    //   the time it had left; getOrLoad only calls its loader when neither tier has the key
+    //   deadlines travel with an entry between the tiers, so an entry expires at the same moment wherever it is
+    //   a background thread compacts the disk tier, deleting segments whose entries have all expired and
+    //   rewriting those that are mostly dead
+    //   like SimpleAgedCache it is meant for one thread at a time; only compaction runs beside it
+
+    private static final long DEFAULT_COMPACTION_INTERVAL_MILLIS = 1000;
+
+    private final Ticker ticker;
+    private final SimpleAgedCache memory;
+    private final DiskTier disk;
+    private final ValueCodec codec;
+    private final long compactionIntervalNanos;
+    private final Thread compactor;
+    private volatile boolean running = true;
+
+    // constructor to accept ticker, memory tier, codec and disk tier parameters
+    //    the disk tier keeps its segment files in a subdirectory it creates in directory and deletes on close
+    public TieredAgedCache(Ticker ticker, int memoryEntries, EvictionPolicy policy, ValueCodec codec, Path directory,
+                           int segmentBytes, long compactionIntervalMillis) throws IOException {
+        if ((codec == null) || (directory == null)) {
+            throw new IllegalArgumentException("codec and directory cannot be null");
+        }
+        if (compactionIntervalMillis <= 0) {
+            throw new IllegalArgumentException("compactionIntervalMillis must be positive");
+        }
+        this.ticker = ticker;
+        this.memory = new SimpleAgedCache(ticker, memoryEntries, policy, null);
+        this.disk = new DiskTier(directory, segmentBytes, ticker);
+        this.codec = codec;
+        this.compactionIntervalNanos = TimeUnit.MILLISECONDS.toNanos(compactionIntervalMillis);
+        memory.demoteTo(this::demote);
+
+        this.compactor = new Thread(this::run, "tiered-cache-compactor");
+        compactor.setDaemon(true);
+        compactor.start();
+    }
+
+    // overloaded constructor with an LRU memory tier, 64 MiB segments and compaction every second
+    public TieredAgedCache(Clock cacheClock, int memoryEntries, ValueCodec codec, Path directory) throws IOException {
+        this(Ticker.of(cacheClock), memoryEntries, EvictionPolicy.LRU, codec, directory,
+                DiskTier.DEFAULT_SEGMENT_BYTES, DEFAULT_COMPACTION_INTERVAL_MILLIS);
+    }
+
+    private void run() {
+        while (running) {
+            LockSupport.parkNanos(this, compactionIntervalNanos);
+            if (!running) {
+                break;
+            }
+            try {
+                disk.compact();
+            } catch (IOException | RuntimeException failure) {
+                // a failed pass leaves its segment in place for the next one
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, failure);
+            }
+        }
+    }
+
+    private void demote(String key, Object value, long deadline) {
+        // callback for the memory tier; an evicted entry is written to disk with its deadline
+        try {
+            disk.put(key, codec.encode(value), deadline);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void put(String key, Object value, int retentionInMillis) {
+        //Description:
+        //   a class method for inserting a key-value pair and length of retention into the memory tier
+        //   a key may live in only one tier, so a key still on disk is rejected like one in memory
+        //Parameters:
+        //   key | string | the string for index-retrieval of the stored value
+        //   value | any? | the stored value, which the codec must be able to encode
+        //   retentionInMillis | Int | retention age in milliseconds, 0 for a permanent entry
+        //Returns:
+        //   void
+        if ((key != null) && disk.contains(key)) {
+            throw new IllegalArgumentException("key already exists in the array");
+        }
+        memory.put(key, value, retentionInMillis);
+    }
+
+    public Object get(String key) {
+        //Description:
+        //   a class method that returns a value from either tier, promoting one found on disk into memory
+        //Parameters:
+        //   key | String | the string for index-retrieval of the stored value
+        //Returns:
+        //   value | Any? | the stored value for the key, null when absent or expired in both tiers
+        Object value = memory.get(key);
+        if ((value != null) || (key == null)) {
+            return value;
+        }
+        DiskTier.Entry demoted = disk.take(key);
+        if (demoted == null) {
+            return null;
+        }
+        value = codec.decode(ByteBuffer.wrap(demoted.value));
+        memory.putUntil(key, value, demoted.deadline);
+        return value;
+    }
+
+    public Object getOrLoad(String key, Function<String, Object> loader, int retentionInMillis) {
+        //Description:
+        //   a class method that returns the value for a key, loading and caching it when neither tier has it
+        //Parameters:
+        //   key | String | the string for index-retrieval of the stored value
+        //   loader | Function | computes the value for a key that is not cached; must not return null
+        //   retentionInMillis | Int | retention age in milliseconds for a loaded value, 0 for permanent
+        //Returns:
+        //   value | Any? | the cached or freshly loaded value
+        if (key == null) {
+            throw new IllegalArgumentException("key cannot be null");
+        }
+        Object value = this.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = loader.apply(key);
+        if (value == null) {
+            throw new IllegalArgumentException("loader returned null for key " + key);
+        }
+        memory.put(key, value, retentionInMillis);
+        return value;
+    }
+
+    public boolean invalidate(String key) {
+        // drop the entry for a key from whichever tier holds it
+        if (key == null) {
+            return false;
+        }
+        return memory.invalidate(key) | disk.remove(key);
+    }
+
+    public int size() {
+        //Description:
+        //   a class method that counts the entries in both tiers
+        //   expired entries leave the disk tier when they are read or compacted away, and are counted until then
+        //Parameters:
+        //   N/A
+        //Returns:
+        //   the size of the cache as Int
+        return memory.size() + disk.size();
+    }
+
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    public int memorySize() {
+        // the number of entries in the memory tier
+        return memory.size();
+    }
+
+    public long diskBytes() {
+        // the bytes of segment files the disk tier currently has mapped
+        return disk.diskBytes();
+    }
+
+    public int compact() throws IOException {
+        // run a compaction pass now rather than waiting for the background thread; returns the segments deleted
+        return disk.compact();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // stop compaction and delete the disk tier's files; the memory tier is left as it is
+        running = false;
+        LockSupport.unpark(compactor);
+        try {
+            compactor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        disk.close();
+    }
+}
@@ -0,0 +1,179 @@
+package io.collective;
+
+import java.util.Arrays;
+
+final class TimerWheel {
+    //Description:
+    //   a hierarchical timing wheel that indexes cache entries by their expiry deadline
+    //   each level is a ring of buckets; level 0 buckets are one millisecond wide and every level
+    //   above is 64 times coarser, so any int retention fits in the six levels below
+    //   advancing the wheel only visits the buckets the clock moved across, and entries in a coarse
+    //   bucket are cascaded down to finer levels as their deadline approaches
+    //   buckets are doubly linked lists threaded through next/prev arrays indexed by entry,
+    //   so scheduling and descheduling are O(1) and allocate nothing
+    //   deadlines are owned by the cache, which hands its deadline array to advance
+
+    interface Expiration {
+        // callback handed each entry whose deadline has passed; the entry is already unlinked from the wheel
+        void expire(int entry);
+    }
+
+    private static final int[] SHIFTS = {0, 6, 12, 18, 24, 30}; // log2 of the bucket width in millis for each level
+    private static final int[] BUCKETS = {64, 64, 64, 64, 64, 1}; // the top level is a single catch-all bucket
+    private static final int BUCKETS_PER_LEVEL = 64; // stride of a level in the flattened heads array
+    private static final int UNSCHEDULED = -1;
+
+    private final int[] heads = new int[SHIFTS.length * BUCKETS_PER_LEVEL]; // first entry of each bucket, -1 when empty
+    private int[] next = new int[0];
+    private int[] prev = new int[0];
+    private int[] bucketOf = new int[0]; // flattened bucket holding each entry, UNSCHEDULED when not in the wheel
+    private long currentTime;
+    private int scheduledCount = 0;
+
+    TimerWheel(long currentTime) {
+        this.currentTime = currentTime;
+        Arrays.fill(heads, -1);
+    }
+
+    void resize(int capacity) {
+        //Description:
+        //   a method to grow the per-entry arrays alongside the cache's entry arrays
+        //Parameters:
+        //   capacity | int | the new entry capacity of the cache
+        //Returns:
+        //   void
+        int oldCapacity = next.length;
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        bucketOf = Arrays.copyOf(bucketOf, capacity);
+        Arrays.fill(bucketOf, oldCapacity, capacity, UNSCHEDULED);
+    }
+
+    long currentTime() {
+        // the time the wheel was last advanced to; every entry it has handed out had a deadline at or before it
+        return currentTime;
+    }
+
+    void schedule(int entry, long deadline) {
+        //Description:
+        //   a method to add an entry to the bucket covering its deadline
+        //   the level is picked from the time remaining, so the entry lands in the finest level whose
+        //   ring still reaches the deadline without wrapping
+        //Parameters:
+        //   entry | int | the cache entry index
+        //   deadline | long | the epoch millisecond at which the entry expires
+        //Returns:
+        //   void
+        link(entry, bucketFor(deadline));
+        scheduledCount++;
+    }
+
+    void deschedule(int entry) {
+        //Description:
+        //   a method to remove an entry from the wheel; entries that are not scheduled are ignored
+        //Parameters:
+        //   entry | int | the cache entry index
+        //Returns:
+        //   void
+        if (bucketOf[entry] == UNSCHEDULED) {
+            return;
+        }
+        unlink(entry);
+        scheduledCount--;
+    }
+
+    void advance(long now, long[] deadlines, Expiration expiration) {
+        //Description:
+        //   a method to move the wheel forward to now, handing every entry whose deadline has passed
+        //   to the expiration callback and cascading the rest of each visited bucket to a finer level
+        //   a clock that moves backwards leaves the wheel where it is
+        //Parameters:
+        //   now | long | the current epoch millisecond
+        //   deadlines | long[] | the deadline of each entry, indexed by entry
+        //   expiration | Expiration | the callback that removes an expired entry from the cache
+        //Returns:
+        //   void
+        long previousTime = currentTime;
+        if (now <= previousTime) {
+            return;
+        }
+        currentTime = now;
+        if (scheduledCount == 0) {
+            return; // nothing to visit, the wheel only needs to remember the time
+        }
+
+        for (int level = 0; level < SHIFTS.length; level++) {
+            long previousTicks = previousTime >>> SHIFTS[level];
+            long currentTicks = now >>> SHIFTS[level];
+            long delta = currentTicks - previousTicks;
+            if (delta <= 0) {
+                break; // coarser levels only turn when this one wraps
+            }
+            expireBuckets(level, previousTicks, delta, deadlines, expiration);
+        }
+    }
+
+    private void expireBuckets(int level, long previousTicks, long delta, long[] deadlines, Expiration expiration) {
+        // visit the buckets from the previous tick through the current tick, at most one full turn
+        int mask = BUCKETS[level] - 1;
+        int steps = (int) Math.min(delta + 1, BUCKETS[level]);
+        int start = (int) (previousTicks & mask);
+
+        for (int step = 0; step < steps; step++) {
+            int bucket = (level * BUCKETS_PER_LEVEL) + ((start + step) & mask);
+
+            // detach the whole bucket first so rescheduled entries cannot be revisited in this pass
+            int entry = heads[bucket];
+            heads[bucket] = -1;
+            while (entry != -1) {
+                int following = next[entry];
+                bucketOf[entry] = UNSCHEDULED;
+                if (deadlines[entry] <= currentTime) {
+                    scheduledCount--;
+                    expiration.expire(entry);
+                } else {
+                    link(entry, bucketFor(deadlines[entry]));
+                }
+                entry = following;
+            }
+        }
+    }
+
+    private int bucketFor(long deadline) {
+        // an overdue deadline is filed under the current tick so the next advance picks it up
+        long time = Math.max(deadline, currentTime);
+        long delay = time - currentTime;
+        for (int level = 0; level < SHIFTS.length - 1; level++) {
+            if (delay < (1L << SHIFTS[level + 1])) {
+                int index = (int) ((time >>> SHIFTS[level]) & (BUCKETS[level] - 1));
+                return (level * BUCKETS_PER_LEVEL) + index;
+            }
+        }
+        return (SHIFTS.length - 1) * BUCKETS_PER_LEVEL;
+    }
+
+    private void link(int entry, int bucket) {
+        int head = heads[bucket];
+        next[entry] = head;
+        prev[entry] = -1;
+        if (head != -1) {
+            prev[head] = entry;
+        }
+        heads[bucket] = entry;
+        bucketOf[entry] = bucket;
+    }
+
+    private void unlink(int entry) {
+        int before = prev[entry];
+        int after = next[entry];
+        if (before == -1) {
+            heads[bucketOf[entry]] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != -1) {
+            prev[after] = before;
+        }
+        bucketOf[entry] = UNSCHEDULED;
+    }
+}
@@ -0,0 +1,90 @@
+package io.collective;
+
+import java.util.Arrays;
+
+final class TinyLfuEvictor implements Evictor {
+    //Description:
+    //   W-TinyLFU eviction
+    //   new entries land in a small LRU window (1% of the cache); the rest of the cache is a segmented LRU
+    //   with a probation segment and a protected segment (80% of the main space) for entries hit again
+    //   when the window overflows, its oldest entry moves to the probation segment as a candidate; once the
+    //   cache is full the candidate competes with the oldest probation entry and a frequency sketch decides
+    //   which of the two is evicted, so a burst of one-off keys cannot flush out entries used over and over
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final EntryLists lists = new EntryLists(3);
+    private final FrequencySketch sketch;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+    private int[] hashes = new int[0]; // key hash of each entry, needed to look up the sketch at eviction time
+    private int candidate = EntryLists.NONE; // the entry most recently moved out of the window
+
+    TinyLfuEvictor(int maximumSize) {
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (int) ((maximumSize - windowMaximum) * 0.8);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    @Override
+    public void resize(int capacity) {
+        lists.resize(capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+    }
+
+    @Override
+    public void recordInsert(int entry, int hash) {
+        hashes[entry] = hash;
+        sketch.increment(hash);
+        lists.addLast(WINDOW, entry);
+        if (lists.size(WINDOW) > windowMaximum) {
+            candidate = lists.first(WINDOW);
+            lists.moveToLast(PROBATION, candidate);
+        }
+    }
+
+    @Override
+    public void recordAccess(int entry, int hash) {
+        sketch.increment(hash);
+        int list = lists.listOf(entry);
+        if (list == PROBATION) {
+            // a second hit promotes the entry; the protected segment makes room by demoting its oldest
+            lists.moveToLast(PROTECTED, entry);
+            if (lists.size(PROTECTED) > protectedMaximum) {
+                lists.moveToLast(PROBATION, lists.first(PROTECTED));
+            }
+        } else {
+            lists.moveToLast(list, entry);
+        }
+    }
+
+    @Override
+    public void recordRemoval(int entry) {
+        lists.unlink(entry);
+        if (entry == candidate) {
+            candidate = EntryLists.NONE;
+        }
+    }
+
+    @Override
+    public int victim() {
+        int victim = lists.first(PROBATION);
+        if ((victim == candidate) || (victim == EntryLists.NONE)) {
+            victim = lists.first(PROTECTED);
+        }
+        if (candidate == EntryLists.NONE) {
+            // no candidate waiting, e.g. the window has room again after removals; evict the oldest main entry
+            return (victim == EntryLists.NONE) ? lists.first(WINDOW) : victim;
+        }
+        if (victim == EntryLists.NONE) {
+            return candidate;
+        }
+
+        // the candidate stays only if it has been seen more often than the entry it would replace
+        int loser = (sketch.frequency(hashes[candidate]) > sketch.frequency(hashes[victim])) ? victim : candidate;
+        candidate = EntryLists.NONE;
+        return loser;
+    }
+}
@@ -0,0 +1,46 @@
+package io.collective;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public interface ValueCodec {
+    //Description:
+    //   converts cache values to and from bytes for the off-heap storage mode of SimpleAgedCache
+    //   encode is called once per put; decode is called on every hit and is handed a buffer positioned
+    //   at the first byte of the value with its limit at the last, which it must not keep a reference to
+
+    byte[] encode(Object value);
+
+    Object decode(ByteBuffer bytes);
+
+    // values are Strings, stored as UTF-8
+    ValueCodec STRING = new ValueCodec() {
+        @Override
+        public byte[] encode(Object value) {
+            return ((String) value).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Object decode(ByteBuffer bytes) {
+            // copying out and building the String directly skips the CharBuffer that Charset.decode goes through
+            byte[] utf8 = new byte[bytes.remaining()];
+            bytes.get(utf8);
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+    };
+
+    // values are byte arrays, stored as is and copied out on every hit
+    ValueCodec BYTES = new ValueCodec() {
+        @Override
+        public byte[] encode(Object value) {
+            return (byte[]) value;
+        }
+
+        @Override
+        public Object decode(ByteBuffer bytes) {
+            byte[] value = new byte[bytes.remaining()];
+            bytes.get(value);
+            return value;
+        }
+    };
+}
@@ -0,0 +1,147 @@
+package io.collective
+
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.NonCancellable
+import kotlinx.coroutines.currentCoroutineContext
+import kotlinx.coroutines.ensureActive
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import kotlinx.coroutines.withContext
+import java.time.Clock
+
+class SuspendingAgedKache(cacheClock: Clock = Clock.systemUTC(),
+                          concurrencyLevel: Int = 4 * Runtime.getRuntime().availableProcessors()) {
+    //Description:
+    //   a coroutine-safe aged cache for callers running on coroutine dispatchers
+    //   keys are spread over a power-of-two number of stripes, each a SimpleAgedCache guarded by a Mutex,
+    //   so a coroutine waiting for a busy stripe suspends instead of blocking its dispatcher thread
+    //   getOrPut runs the loader outside the stripe lock, and concurrent misses on the same key share
+    //   one in-flight load through a CompletableDeferred instead of each calling the loader
+
+    private val stripeMask: Int
+    private val stripes: Array<SimpleAgedCache>
+    private val mutexes: Array<Mutex>
+    private val loads: Array<HashMap<String, CompletableDeferred<Any>>> // in-flight loads of each stripe, guarded by its mutex
+
+    init {
+        if (concurrencyLevel <= 0) {
+            throw IllegalArgumentException("concurrencyLevel must be positive")
+        }
+        // round the stripe count up to a power of two so a stripe can be picked with a mask
+        val stripeCount = Integer.highestOneBit(minOf(concurrencyLevel, 1 shl 16) * 2 - 1)
+        stripeMask = stripeCount - 1
+        stripes = Array(stripeCount) { SimpleAgedCache(cacheClock) }
+        mutexes = Array(stripeCount) { Mutex() }
+        loads = Array(stripeCount) { HashMap<String, CompletableDeferred<Any>>() }
+    }
+
+    private fun stripeFor(key: String): Int {
+        // the low bits of the spread hash pick the slot inside a stripe, so the stripe comes from the high bits
+        return (SimpleAgedCache.spread(key) ushr 16) and stripeMask
+    }
+
+    suspend fun getOrPut(key: String, retentionInMillis: Int = 0, loader: suspend (String) -> Any): Any {
+        //Description:
+        //   a class method that returns the value for a key, loading and caching it on a miss
+        //   only one coroutine per key runs the loader at a time; the others suspend until it finishes
+        //   and share its result, or its exception when it fails
+        //   if the loading coroutine is cancelled, a waiting coroutine takes over the load
+        //Parameters:
+        //   key | String | the string for index-retrieval of the stored value
+        //   retentionInMillis | Int | retention age in milliseconds for a loaded value, 0 for permanent
+        //   loader | suspend (String) -> Any | computes the value for a key that is not cached
+        //Returns:
+        //   value | Any | the cached or freshly loaded value
+        val stripe = stripeFor(key)
+        while (true) {
+            val load = CompletableDeferred<Any>()
+            val inFlight = mutexes[stripe].withLock {
+                val cached = stripes[stripe].get(key)
+                if (cached != null) {
+                    return cached
+                }
+                loads[stripe].getOrPut(key) { load }
+            }
+            if (inFlight === load) {
+                return load(stripe, key, retentionInMillis, loader, load)
+            }
+            try {
+                return inFlight.await()
+            } catch (cancelled: CancellationException) {
+                currentCoroutineContext().ensureActive() // rethrows when this coroutine is the one cancelled
+                // otherwise the loading coroutine was cancelled, so go round and load it here
+            }
+        }
+    }
+
+    private suspend fun load(stripe: Int, key: String, retentionInMillis: Int,
+                             loader: suspend (String) -> Any, load: CompletableDeferred<Any>): Any {
+        // run the loader for a claimed key, then publish the value to the stripe and to the waiters
+        try {
+            val value = loader(key)
+            mutexes[stripe].withLock {
+                stripes[stripe].invalidate(key) // drops an expired entry the stripe has not cleaned up yet
+                stripes[stripe].put(key, value, retentionInMillis)
+                loads[stripe].remove(key)
+            }
+            load.complete(value)
+            return value
+        } catch (failure: Throwable) {
+            // the claim must be released even when this coroutine is being cancelled
+            withContext(NonCancellable) {
+                mutexes[stripe].withLock { loads[stripe].remove(key) }
+            }
+            load.completeExceptionally(failure)
+            throw failure
+        }
+    }
+
+    suspend fun put(key: String, value: Any, retentionInMillis: Int = 0) {
+        //Description:
+        //   a class method for inserting a key-value pair and length of retention
+        //Parameters:
+        //   key | string | the string for index-retrieval of the stored value
+        //   value | any | the stored value
+        //   retentionInMillis | Int | retention age in milliseconds, 0 for a permanent entry
+        //Returns:
+        //   void
+        val stripe = stripeFor(key)
+        mutexes[stripe].withLock { stripes[stripe].put(key, value, retentionInMillis) }
+    }
+
+    suspend fun get(key: String): Any? {
+        //Description:
+        //   a class method that returns a value based on given key, without loading
+        //Parameters:
+        //   key | String | the string for index-retrieval of the stored value
+        //Returns:
+        //   value | Any? | the stored value for the key, null when absent or expired
+        val stripe = stripeFor(key)
+        return mutexes[stripe].withLock { stripes[stripe].get(key) }
+    }
+
+    suspend fun invalidate(key: String): Boolean {
+        // drop the entry for a key; a load already in flight still completes and caches its result
+        val stripe = stripeFor(key)
+        return mutexes[stripe].withLock { stripes[stripe].invalidate(key) }
+    }
+
+    suspend fun size(): Int {
+        //Description:
+        //   a class method that counts the live entries across all stripes, one stripe at a time
+        //Parameters:
+        //   N/A
+        //Returns:
+        //   the size of the cache as Int
+        var size = 0
+        for (stripe in stripes.indices) {
+            size += mutexes[stripe].withLock { stripes[stripe].size() }
+        }
+        return size
+    }
+
+    suspend fun isEmpty(): Boolean {
+        return size() == 0
+    }
+}
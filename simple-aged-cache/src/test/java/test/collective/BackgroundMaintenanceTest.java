@@ -0,0 +1,117 @@
+package test.collective;
+
+import io.collective.ConcurrentAgedCache;
+import io.collective.SimpleAgedCache;
+import io.collective.Ticker;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.TestCase.*;
+
+public class BackgroundMaintenanceTest {
+    SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void deferredCacheOnlyCleansInMaintain() {
+        SimpleAgedCache cache = new SimpleAgedCache(clock);
+        cache.deferMaintenance();
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key" + i, "value" + i, (i % 2 == 0) ? 1000 : 0);
+        }
+
+        clock.offset(Duration.ofMillis(2000));
+        assertNull(cache.get("key0"));
+        assertEquals("value1", cache.get("key1"));
+        assertEquals(1000, cache.size()); // expired entries wait for maintain
+
+        assertTrue(cache.maintain(100));
+        assertEquals(900, cache.size());
+        while (cache.maintain(100)) {
+            // drain the rest in batches
+        }
+        assertEquals(500, cache.size());
+    }
+
+    @Test
+    public void exactSizeSweeps() {
+        SimpleAgedCache cache = new SimpleAgedCache(clock);
+        cache.deferMaintenance();
+        cache.put("aKey", "aValue", 2000);
+        cache.put("anotherKey", "anotherValue", 4000);
+
+        clock.offset(Duration.ofMillis(3000));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.exactSize());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void anExpiredKeyCanBePutAgain() {
+        SimpleAgedCache cache = new SimpleAgedCache(clock);
+        cache.deferMaintenance();
+        cache.put("aKey", "aValue", 2000);
+
+        clock.offset(Duration.ofMillis(3000));
+        cache.put("aKey", "anotherValue", 2000);
+        assertEquals("anotherValue", cache.get("aKey"));
+        assertFalse(cache.maintain(100)); // the queued index now holds the live entry and is skipped
+        assertEquals(1, cache.exactSize());
+    }
+
+    @Test
+    public void scheduledMaintenanceRemovesExpiredEntries() throws InterruptedException {
+        ConcurrentAgedCache cache = new ConcurrentAgedCache(Ticker.of(clock), 4, executor, 10);
+        for (int i = 0; i < 5000; i++) {
+            cache.put("key" + i, "value" + i, (i % 2 == 0) ? 1000 : 0);
+        }
+        assertEquals(5000, cache.size());
+
+        clock.offset(Duration.ofMillis(2000));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((cache.size() != 2500) && (System.nanoTime() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertEquals(2500, cache.size());
+        assertEquals(2500, cache.exactSize());
+        assertEquals("value1", cache.get("key1"));
+        assertNull(cache.get("key0"));
+        cache.close();
+    }
+
+    @Test
+    public void sizeTracksConcurrentWriters() throws InterruptedException {
+        ConcurrentAgedCache cache = new ConcurrentAgedCache(Ticker.of(clock), 16, executor, 1);
+        int threads = 4;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    String key = "key" + offset + "-" + i;
+                    cache.put(key, "value", 0);
+                    if (i % 4 == 0) {
+                        cache.invalidate(key);
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        assertEquals(threads * 1500, cache.size());
+        assertEquals(threads * 1500, cache.exactSize());
+        cache.close();
+    }
+}
@@ -0,0 +1,137 @@
+package test.collective;
+
+import io.collective.EvictionPolicy;
+import io.collective.SimpleAgedCache;
+import io.collective.ValueCodec;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static junit.framework.TestCase.*;
+
+public class BulkOperationsTest {
+
+    @Test
+    public void putAllAndGetAll() {
+        SimpleAgedCache cache = new SimpleAgedCache();
+        cache.putAll(new String[]{"aKey", "anotherKey"}, new Object[]{"aValue", "anotherValue"}, 2000);
+
+        Object[] found = cache.getAll(new String[]{"anotherKey", "missingKey", null, "aKey"});
+
+        assertEquals(2, cache.size());
+        assertEquals("anotherValue", found[0]);
+        assertNull(found[1]);
+        assertNull(found[2]);
+        assertEquals("aValue", found[3]);
+        assertEquals(2, cache.hitCount());
+        assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    public void getAllExpired() {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+        SimpleAgedCache expired = new SimpleAgedCache(clock);
+        expired.putAll(new String[]{"aKey"}, new Object[]{"aValue"}, 2000);
+        expired.putAll(new String[]{"anotherKey"}, new Object[]{"anotherValue"}, 4000);
+
+        clock.offset(Duration.ofMillis(3000));
+
+        Object[] found = expired.getAll(new String[]{"aKey", "anotherKey"});
+        assertNull(found[0]);
+        assertEquals("anotherValue", found[1]);
+        assertEquals(1, expired.size());
+    }
+
+    @Test
+    public void putAllGrowsPastFreedEntries() {
+        SimpleAgedCache cache = new SimpleAgedCache();
+        String[] keys = new String[1000];
+        Object[] values = new Object[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "key" + i;
+            values[i] = i;
+        }
+        cache.putAll(keys, values, 0);
+        assertEquals(500, cache.invalidateAll(Arrays.copyOf(keys, 500)));
+
+        String[] moreKeys = new String[2000];
+        Object[] moreValues = new Object[2000];
+        for (int i = 0; i < moreKeys.length; i++) {
+            moreKeys[i] = "moreKey" + i;
+            moreValues[i] = i;
+        }
+        cache.putAll(moreKeys, moreValues, 0);
+
+        assertEquals(2500, cache.size());
+        assertEquals(999, cache.getAll(new String[]{"key999"})[0]);
+        assertEquals(1999, cache.getAll(new String[]{"moreKey1999"})[0]);
+    }
+
+    @Test
+    public void rejectedBatchLeavesCacheUnchanged() {
+        SimpleAgedCache cache = new SimpleAgedCache();
+        cache.put("aKey", "aValue", 0);
+
+        String[][] batches = {
+                {"anotherKey", "aKey"},
+                {"anotherKey", "anotherKey"},
+                {"anotherKey", null},
+        };
+        for (String[] batch : batches) {
+            try {
+                cache.putAll(batch, new Object[]{"anotherValue", "yetAnotherValue"}, 0);
+                fail("expected the batch to be rejected");
+            } catch (IllegalArgumentException expected) {
+                assertEquals(1, cache.size());
+                assertNull(cache.get("anotherKey"));
+            }
+        }
+    }
+
+    @Test
+    public void putAllStaysWithinMaximumSize() {
+        SimpleAgedCache bounded = new SimpleAgedCache(100, EvictionPolicy.LRU);
+        String[] keys = new String[1000];
+        Object[] values = new Object[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "key" + i;
+            values[i] = i;
+        }
+        bounded.putAll(keys, values, 0);
+
+        assertEquals(100, bounded.size());
+        assertEquals(900, bounded.evictionCount());
+        assertEquals(999, bounded.get("key999"));
+    }
+
+    @Test
+    public void putAllOffHeap() {
+        SimpleAgedCache cache = new SimpleAgedCache(Clock.systemUTC(), ValueCodec.STRING);
+        cache.putAll(new String[]{"aKey", "anotherKey"}, new Object[]{"aValue", "anotherValue"}, 2000);
+
+        Object[] found = cache.getAll(new String[]{"aKey", "anotherKey"});
+        assertEquals("aValue", found[0]);
+        assertEquals("anotherValue", found[1]);
+    }
+
+    @Test
+    public void invalidate() {
+        SimpleAgedCache cache = new SimpleAgedCache();
+        cache.put("aKey", "aValue", 0);
+        cache.put("anotherKey", "anotherValue", 2000);
+
+        assertTrue(cache.invalidate("aKey"));
+        assertFalse(cache.invalidate("aKey"));
+        assertFalse(cache.invalidate(null));
+        assertNull(cache.get("aKey"));
+        assertEquals(1, cache.size());
+
+        // an invalidated key can be put again
+        cache.put("aKey", "aNewValue", 0);
+        assertEquals("aNewValue", cache.get("aKey"));
+        assertEquals(2, cache.invalidateAll(new String[]{"aKey", "anotherKey", "missingKey", null}));
+        assertTrue(cache.isEmpty());
+    }
+}
@@ -0,0 +1,96 @@
+package test.collective;
+
+import io.collective.CacheStats;
+import io.collective.ConcurrentAgedCache;
+import io.collective.EvictionPolicy;
+import io.collective.SimpleAgedCache;
+import io.collective.StatsRecorder;
+import io.collective.Ticker;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+
+import static junit.framework.TestCase.*;
+
+public class CacheStatsTest {
+
+    @Test
+    public void recordsOperations() {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+        StatsRecorder stats = new StatsRecorder();
+        SimpleAgedCache cache = new SimpleAgedCache(Ticker.of(clock), 2, EvictionPolicy.LRU, null, stats);
+
+        cache.put("aKey", "aValue", 2000);
+        cache.put("anotherKey", "anotherValue", 0);
+        cache.get("aKey");
+        cache.get("missingKey");
+        cache.put("aThirdKey", "aThirdValue", 0); // evicts anotherKey
+        clock.offset(Duration.ofMillis(3000));
+        cache.get("aKey");
+        cache.getAll(new String[]{"aThirdKey", "missingKey"});
+
+        CacheStats snapshot = stats.snapshot();
+        assertEquals(2, snapshot.hitCount());
+        assertEquals(3, snapshot.missCount());
+        assertEquals(0.4, snapshot.hitRate(), 1e-9);
+        assertEquals(3, snapshot.putCount());
+        assertEquals(1, snapshot.evictionCount());
+        assertEquals(1, snapshot.expirationCount());
+        assertEquals(1, snapshot.resizeCount());
+        assertTrue(snapshot.getLatencyNanos(0.5) <= snapshot.getLatencyNanos(0.99));
+        assertTrue(snapshot.averagePutNanos() > 0);
+    }
+
+    @Test
+    public void snapshotsDoNotChange() {
+        StatsRecorder stats = new StatsRecorder();
+        SimpleAgedCache cache = new SimpleAgedCache(Ticker.of(Clock.systemUTC()), 10, EvictionPolicy.LRU, null, stats);
+        cache.put("aKey", "aValue", 0);
+
+        CacheStats before = stats.snapshot();
+        cache.get("aKey");
+
+        assertEquals(0, before.hitCount());
+        assertEquals(1, stats.snapshot().hitCount());
+    }
+
+    @Test
+    public void stripesShareOneRecorder() {
+        StatsRecorder stats = new StatsRecorder();
+        ConcurrentAgedCache cache = new ConcurrentAgedCache(Ticker.of(Clock.systemUTC()), 8, stats);
+        for (int i = 0; i < 100; i++) {
+            cache.put("key" + i, i, 0);
+        }
+        for (int i = 0; i < 150; i++) {
+            cache.get("key" + i);
+        }
+
+        CacheStats snapshot = stats.snapshot();
+        assertEquals(100, snapshot.putCount());
+        assertEquals(100, snapshot.hitCount());
+        assertEquals(50, snapshot.missCount());
+    }
+
+    @Test
+    public void exposedOverJmx() throws Exception {
+        StatsRecorder stats = new StatsRecorder();
+        SimpleAgedCache cache = new SimpleAgedCache(Ticker.of(Clock.systemUTC()), 10, EvictionPolicy.LRU, null, stats);
+        cache.put("aKey", "aValue", 0);
+        cache.get("aKey");
+
+        ObjectName name = stats.registerMBean("aCache");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1L, server.getAttribute(name, "HitCount"));
+            assertEquals(1L, server.getAttribute(name, "PutCount"));
+            assertEquals(1.0, server.getAttribute(name, "HitRate"));
+        } finally {
+            stats.unregisterMBean(name);
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
@@ -0,0 +1,149 @@
+package test.collective;
+
+import io.collective.ConcurrentAgedCache;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.*;
+
+public class ConcurrentAgedCacheTest {
+    static final int THREADS = 16;
+    static final int KEYS_PER_THREAD = 5_000;
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void isEmpty() {
+        ConcurrentAgedCache empty = new ConcurrentAgedCache();
+        assertTrue(empty.isEmpty());
+
+        empty.put("aKey", "aValue", 0);
+        assertFalse(empty.isEmpty());
+    }
+
+    @Test
+    public void getExpired() {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+
+        ConcurrentAgedCache expired = new ConcurrentAgedCache(clock);
+        expired.put("aKey", "aValue", 2000);
+        expired.put("anotherKey", "anotherValue", 4000);
+
+        clock.offset(Duration.ofMillis(3000));
+
+        assertNull(expired.get("aKey"));
+        assertEquals(1, expired.size());
+        assertEquals("anotherValue", expired.get("anotherKey"));
+    }
+
+    @Test
+    public void concurrentPutsAndGets() throws Exception {
+        ConcurrentAgedCache cache = new ConcurrentAgedCache();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < KEYS_PER_THREAD; i++) {
+                cache.put(thread + "-" + i, i, 0);
+                // read back a key written by another thread, which may or may not be there yet
+                Object other = cache.get(((thread + 1) % THREADS) + "-" + i);
+                if (other != null && !other.equals(i)) {
+                    throw new AssertionError("read a value written under another key");
+                }
+            }
+            return null;
+        });
+
+        assertEquals(THREADS * KEYS_PER_THREAD, cache.size());
+        for (int thread = 0; thread < THREADS; thread++) {
+            for (int i = 0; i < KEYS_PER_THREAD; i++) {
+                assertEquals(i, cache.get(thread + "-" + i));
+            }
+        }
+    }
+
+    @Test
+    public void concurrentPutsOfTheSameKeyAdmitOne() throws Exception {
+        ConcurrentAgedCache cache = new ConcurrentAgedCache();
+        AtomicInteger admitted = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < KEYS_PER_THREAD; i++) {
+                try {
+                    cache.put("shared-" + i, thread, 0);
+                    admitted.incrementAndGet();
+                } catch (IllegalArgumentException duplicate) {
+                    // another thread won the race for this key
+                }
+            }
+            return null;
+        });
+
+        assertEquals(KEYS_PER_THREAD, admitted.get());
+        assertEquals(KEYS_PER_THREAD, cache.size());
+    }
+
+    @Test
+    public void expiryUnderContention() throws Exception {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+        ConcurrentAgedCache cache = new ConcurrentAgedCache(clock);
+
+        // every other key expires after two seconds, the rest are permanent
+        runConcurrently(thread -> {
+            for (int i = 0; i < KEYS_PER_THREAD; i++) {
+                cache.put(thread + "-" + i, i, (i % 2 == 0) ? 2000 : 0);
+            }
+            return null;
+        });
+        assertEquals(THREADS * KEYS_PER_THREAD, cache.size());
+
+        clock.offset(Duration.ofMillis(3000));
+
+        // readers and writers race while the expired half is being cleaned up
+        runConcurrently(thread -> {
+            for (int i = 0; i < KEYS_PER_THREAD; i++) {
+                Object value = cache.get(thread + "-" + i);
+                if ((i % 2 == 0) ? (value != null) : (!Integer.valueOf(i).equals(value))) {
+                    throw new AssertionError("unexpected value for " + thread + "-" + i + ": " + value);
+                }
+                cache.put(thread + "-late-" + i, i, 0);
+            }
+            return null;
+        });
+
+        // the permanent half survives alongside every late write
+        assertEquals((THREADS * KEYS_PER_THREAD / 2) + (THREADS * KEYS_PER_THREAD), cache.size());
+    }
+
+    interface ThreadBody {
+        Void run(int thread) throws Exception;
+    }
+
+    private void runConcurrently(ThreadBody body) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?>[] futures = new Future<?>[THREADS];
+        for (int thread = 0; thread < THREADS; thread++) {
+            int id = thread;
+            Callable<Void> task = () -> {
+                start.await();
+                return body.run(id);
+            };
+            futures[thread] = executor.submit(task);
+        }
+        start.countDown(); // release every thread at once to maximise contention
+        for (Future<?> future : futures) {
+            future.get(); // rethrows any assertion failure from a worker
+        }
+    }
+}
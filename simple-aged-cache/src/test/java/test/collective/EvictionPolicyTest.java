@@ -0,0 +1,102 @@
+package test.collective;
+
+import io.collective.EvictionPolicy;
+import io.collective.SimpleAgedCache;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static junit.framework.TestCase.*;
+
+public class EvictionPolicyTest {
+
+    @Test
+    public void staysWithinMaximumSize() {
+        for (EvictionPolicy policy : EvictionPolicy.values()) {
+            SimpleAgedCache bounded = new SimpleAgedCache(100, policy);
+            for (int i = 0; i < 1000; i++) {
+                bounded.put("key" + i, i, 0);
+            }
+            assertEquals(policy.name(), 100, bounded.size());
+            assertEquals(policy.name(), 900, bounded.evictionCount());
+        }
+    }
+
+    @Test
+    public void lruEvictsLeastRecentlyUsed() {
+        SimpleAgedCache lru = new SimpleAgedCache(2, EvictionPolicy.LRU);
+        lru.put("aKey", "aValue", 0);
+        lru.put("anotherKey", "anotherValue", 0);
+        lru.get("aKey");
+
+        lru.put("aThirdKey", "aThirdValue", 0);
+
+        assertEquals("aValue", lru.get("aKey"));
+        assertNull(lru.get("anotherKey"));
+        assertEquals("aThirdValue", lru.get("aThirdKey"));
+    }
+
+    @Test
+    public void lfuEvictsLeastFrequentlyUsed() {
+        SimpleAgedCache lfu = new SimpleAgedCache(2, EvictionPolicy.LFU);
+        lfu.put("aKey", "aValue", 0);
+        lfu.put("anotherKey", "anotherValue", 0);
+        lfu.get("aKey");
+        lfu.get("aKey");
+        lfu.get("anotherKey");
+        lfu.get("anotherKey");
+        lfu.get("anotherKey");
+
+        lfu.put("aThirdKey", "aThirdValue", 0);
+
+        assertNull(lfu.get("aKey"));
+        assertEquals("anotherValue", lfu.get("anotherKey"));
+        assertEquals("aThirdValue", lfu.get("aThirdKey"));
+    }
+
+    @Test
+    public void tinyLfuKeepsPopularEntriesThroughAScan() {
+        SimpleAgedCache tinyLfu = new SimpleAgedCache(100, EvictionPolicy.TINY_LFU);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (tinyLfu.get("popular" + i) == null) {
+                    tinyLfu.put("popular" + i, i, 0);
+                }
+            }
+        }
+
+        // a one-off scan twice the size of the cache
+        for (int i = 0; i < 200; i++) {
+            tinyLfu.put("scan" + i, i, 0);
+        }
+
+        int survivors = 0;
+        for (int i = 0; i < 50; i++) {
+            if (tinyLfu.get("popular" + i) != null) {
+                survivors++;
+            }
+        }
+        assertTrue("only " + survivors + " popular entries survived", survivors >= 45);
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+        SimpleAgedCache cache = new SimpleAgedCache(clock, 10, EvictionPolicy.LRU);
+        cache.put("aKey", "aValue", 2000);
+
+        cache.get("aKey");
+        cache.get("anotherKey");
+        clock.offset(Duration.ofMillis(3000));
+        cache.get("aKey");
+
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        assertEquals(0, cache.evictionCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveMaximumSize() {
+        new SimpleAgedCache(0, EvictionPolicy.LRU);
+    }
+}
@@ -0,0 +1,174 @@
+package test.collective;
+
+import io.collective.LoadingAgedCache;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static junit.framework.TestCase.*;
+
+public class LoadingAgedCacheTest {
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void getOrLoad() {
+        LoadingAgedCache cache = new LoadingAgedCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("aValue", cache.getOrLoad("aKey", key -> { loads.incrementAndGet(); return "aValue"; }, 2000));
+        assertEquals("aValue", cache.getOrLoad("aKey", key -> { loads.incrementAndGet(); return "anotherValue"; }, 2000));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void getOrLoadExpired() {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+        LoadingAgedCache cache = new LoadingAgedCache(clock);
+
+        cache.getOrLoad("aKey", key -> "aValue", 2000);
+        clock.offset(Duration.ofMillis(3000));
+
+        assertEquals("anotherValue", cache.getOrLoad("aKey", key -> "anotherValue", 2000));
+    }
+
+    @Test
+    public void concurrentMissesShareOneLoad() throws Exception {
+        LoadingAgedCache cache = new LoadingAgedCache();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        Future<?>[] callers = new Future<?>[16];
+        for (int i = 0; i < callers.length; i++) {
+            callers[i] = executor.submit(() -> {
+                start.await();
+                return cache.getOrLoad("aKey", key -> {
+                    loads.incrementAndGet();
+                    sleep(100); // a slow backend keeps the load in flight while the others miss
+                    return "aValue";
+                }, 0);
+            });
+        }
+        start.countDown();
+
+        for (Future<?> caller : callers) {
+            assertEquals("aValue", caller.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void failedLoadIsNotCached() {
+        LoadingAgedCache cache = new LoadingAgedCache();
+
+        try {
+            cache.getOrLoad("aKey", key -> { throw new IllegalStateException("backend down"); }, 0);
+            fail("expected the loader's exception");
+        } catch (IllegalStateException expected) {
+            assertEquals("backend down", expected.getMessage());
+        }
+
+        assertTrue(cache.isEmpty());
+        assertEquals("aValue", cache.getOrLoad("aKey", key -> "aValue", 0));
+    }
+
+    @Test
+    public void refreshAhead() {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+        LoadingAgedCache cache = new LoadingAgedCache(clock, 500, Runnable::run);
+
+        cache.getOrLoad("aKey", key -> "aValue", 2000);
+
+        // still outside the refresh window
+        clock.offset(Duration.ofMillis(1000));
+        assertEquals("aValue", cache.getOrLoad("aKey", key -> "aRefreshedValue", 2000));
+        assertEquals("aValue", cache.get("aKey"));
+
+        // inside the refresh window the old value is served and replaced behind it
+        clock.offset(Duration.ofMillis(1700));
+        assertEquals("aValue", cache.getOrLoad("aKey", key -> "aRefreshedValue", 2000));
+        assertEquals("aRefreshedValue", cache.get("aKey"));
+
+        // the refreshed entry's retention starts from the reload
+        clock.offset(Duration.ofMillis(3000));
+        assertEquals("aRefreshedValue", cache.get("aKey"));
+    }
+
+    @Test
+    public void noRefreshForAnInvalidatedEntry() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        AtomicInteger ticks = new AtomicInteger(-1); // counts clock reads once armed
+        LoadingAgedCache[] cache = new LoadingAgedCache[1];
+        cache[0] = new LoadingAgedCache(() -> {
+            // the hit reads the clock first and the refresh check next; another caller
+            //    invalidates the key in between
+            if ((ticks.get() >= 0) && (ticks.incrementAndGet() == 2)) {
+                cache[0].invalidate("aKey");
+            }
+            return now.get();
+        }, 500, Runnable::run);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache[0].getOrLoad("aKey", key -> "aValue", 2000);
+        now.addAndGet(1700);
+        ticks.set(0);
+        assertEquals("aValue", cache[0].getOrLoad("aKey", key -> { loads.incrementAndGet(); return "aRefreshedValue"; }, 2000));
+
+        assertEquals(0, loads.get());
+        assertNull(cache[0].get("aKey"));
+        assertTrue(cache[0].isEmpty());
+    }
+
+    @Test
+    public void noRefreshForAPermanentEntry() {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+        LoadingAgedCache cache = new LoadingAgedCache(clock, 500, Runnable::run);
+
+        cache.getOrLoad("aKey", key -> "aValue", 0);
+        clock.offset(Duration.ofMillis(1700));
+
+        assertEquals("aValue", cache.getOrLoad("aKey", key -> "aRefreshedValue", 2000));
+        assertEquals("aValue", cache.get("aKey"));
+    }
+
+    @Test
+    public void rejectedRefreshKeepsTheHit() {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+        LoadingAgedCache cache = new LoadingAgedCache(clock, 500, task -> {
+            throw new RejectedExecutionException("executor shut down");
+        });
+
+        cache.getOrLoad("aKey", key -> "aValue", 2000);
+
+        // the refresh cannot start, and the hit is served anyway
+        clock.offset(Duration.ofMillis(1700));
+        assertEquals("aValue", cache.getOrLoad("aKey", key -> "aRefreshedValue", 2000));
+
+        // nothing is left in flight, so the miss after expiry loads the key instead of waiting
+        clock.offset(Duration.ofMillis(3000));
+        assertEquals("aLoadedValue", cache.getOrLoad("aKey", key -> "aLoadedValue", 2000));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
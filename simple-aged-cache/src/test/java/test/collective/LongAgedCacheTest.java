@@ -0,0 +1,94 @@
+package test.collective;
+
+import io.collective.LongAgedCache;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static junit.framework.TestCase.*;
+
+public class LongAgedCacheTest {
+    LongAgedCache empty = new LongAgedCache();
+    LongAgedCache nonempty = new LongAgedCache();
+
+    @Before
+    public void before() {
+        nonempty.put(1L, "aValue", 2000);
+        nonempty.put(2L, "anotherValue", 4000);
+    }
+
+    @Test
+    public void isEmpty() {
+        assertTrue(empty.isEmpty());
+        assertFalse(nonempty.isEmpty());
+    }
+
+    @Test
+    public void size() {
+        assertEquals(0, empty.size());
+        assertEquals(2, nonempty.size());
+    }
+
+    @Test
+    public void get() {
+        assertNull(empty.get(1L));
+        assertEquals("aValue", nonempty.get(1L));
+        assertEquals("anotherValue", nonempty.get(2L));
+    }
+
+    @Test
+    public void getExpired() {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+
+        LongAgedCache expired = new LongAgedCache(clock);
+        expired.put(1L, "aValue", 2000);
+        expired.put(2L, "anotherValue", 4000);
+
+        clock.offset(Duration.ofMillis(3000));
+
+        assertNull(expired.get(1L));
+        assertEquals(1, expired.size());
+        assertEquals("anotherValue", expired.get(2L));
+    }
+
+    @Test
+    public void everyLongIsAKey() {
+        LongAgedCache cache = new LongAgedCache();
+        cache.put(0L, "zero", 0);
+        cache.put(-1L, "minusOne", 0);
+        cache.put(Long.MIN_VALUE, "min", 0);
+        cache.put(Long.MAX_VALUE, "max", 0);
+
+        assertEquals(4, cache.size());
+        assertEquals("zero", cache.get(0L));
+        assertEquals("minusOne", cache.get(-1L));
+        assertEquals("min", cache.get(Long.MIN_VALUE));
+        assertEquals("max", cache.get(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void invalidateAndReuse() {
+        LongAgedCache cache = new LongAgedCache();
+        for (long id = 0; id < 1000; id++) {
+            cache.put(id, "value" + id, 0);
+        }
+        for (long id = 0; id < 1000; id += 2) {
+            assertTrue(cache.invalidate(id));
+        }
+        assertFalse(cache.invalidate(0L));
+        assertEquals(500, cache.size());
+
+        for (long id = 0; id < 1000; id++) {
+            Object expected = (id % 2 == 0) ? null : "value" + id;
+            assertEquals(expected, cache.get(id));
+        }
+        cache.put(0L, "again", 0);
+        assertEquals("again", cache.get(0L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateKey() {
+        nonempty.put(1L, "aThirdValue", 0);
+    }
+}
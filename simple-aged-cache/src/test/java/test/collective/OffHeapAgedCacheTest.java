@@ -0,0 +1,109 @@
+package test.collective;
+
+import io.collective.EvictionPolicy;
+import io.collective.SimpleAgedCache;
+import io.collective.ValueCodec;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static junit.framework.TestCase.*;
+
+public class OffHeapAgedCacheTest {
+    SimpleAgedCache empty = new SimpleAgedCache(Clock.systemUTC(), ValueCodec.STRING);
+    SimpleAgedCache nonempty = new SimpleAgedCache(Clock.systemUTC(), ValueCodec.STRING);
+
+    @Before
+    public void before() {
+        nonempty.put("aKey", "aValue", 2000);
+        nonempty.put("anotherKey", "anotherValue", 4000);
+    }
+
+    @Test
+    public void isEmpty() {
+        assertTrue(empty.isEmpty());
+        assertFalse(nonempty.isEmpty());
+    }
+
+    @Test
+    public void size() {
+        assertEquals(0, empty.size());
+        assertEquals(2, nonempty.size());
+    }
+
+    @Test
+    public void get() {
+        assertNull(empty.get("aKey"));
+        assertEquals("aValue", nonempty.get("aKey"));
+        assertEquals("anotherValue", nonempty.get("anotherKey"));
+        assertEquals(0, empty.offHeapBytes());
+        assertTrue(nonempty.offHeapBytes() > 0);
+    }
+
+    @Test
+    public void getExpired() {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+
+        SimpleAgedCache expired = new SimpleAgedCache(clock, ValueCodec.STRING);
+        expired.put("aKey", "aValue", 2000);
+        expired.put("anotherKey", "anotherValue", 4000);
+
+        clock.offset(Duration.ofMillis(3000));
+
+        assertNull(expired.get("aKey"));
+        assertEquals(1, expired.size());
+        assertEquals("anotherValue", expired.get("anotherKey"));
+    }
+
+    @Test
+    public void memoryIsReusedAsEntriesChurn() {
+        SimpleAgedCache bounded = new SimpleAgedCache(Clock.systemUTC(), 1000, EvictionPolicy.LRU, ValueCodec.BYTES);
+        byte[] kilobyte = new byte[1024];
+
+        for (int i = 0; i < 100_000; i++) {
+            kilobyte[0] = (byte) i;
+            bounded.put("key" + i, kilobyte, 0);
+        }
+
+        // 1000 live kilobyte values fit in a couple of slabs; 100MB of churn must not pile up
+        assertEquals(1000, bounded.size());
+        assertTrue(bounded.offHeapBytes() <= 4 << 20);
+        assertEquals((byte) 99_999, ((byte[]) bounded.get("key99999"))[0]);
+    }
+
+    @Test
+    public void longLivedEntriesDoNotPinChurnedMemory() {
+        SimpleAgedCache cache = new SimpleAgedCache(Clock.systemUTC(), ValueCodec.BYTES);
+        byte[] kilobyte = new byte[1024];
+
+        // one value in a hundred stays, so every slab the churn passes through keeps a few live values
+        for (int i = 0; i < 100_000; i++) {
+            kilobyte[0] = (byte) i;
+            cache.put(((i % 100 == 0) ? "longLived" : "shortLived") + i, kilobyte, 0);
+            if (i >= 100) {
+                cache.invalidate("shortLived" + (i - 100));
+            }
+        }
+
+        // about 1100 live kilobyte values; freed space is reused rather than 100MB of slabs kept
+        assertEquals(1099, cache.size());
+        assertTrue(cache.offHeapBytes() <= 4 << 20);
+        assertEquals((byte) 500, ((byte[]) cache.get("longLived500"))[0]);
+        assertEquals((byte) 99_999, ((byte[]) cache.get("shortLived99999"))[0]);
+    }
+
+    @Test
+    public void oversizedValues() {
+        SimpleAgedCache cache = new SimpleAgedCache(Clock.systemUTC(), ValueCodec.BYTES);
+        byte[] large = new byte[3 << 20];
+        large[large.length - 1] = 42;
+
+        cache.put("aKey", large, 0);
+
+        byte[] read = (byte[]) cache.get("aKey");
+        assertEquals(large.length, read.length);
+        assertEquals(42, read[read.length - 1]);
+    }
+}
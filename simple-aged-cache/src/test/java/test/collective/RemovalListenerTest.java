@@ -0,0 +1,139 @@
+package test.collective;
+
+import io.collective.ConcurrentAgedCache;
+import io.collective.EvictionPolicy;
+import io.collective.RemovalCause;
+import io.collective.SimpleAgedCache;
+import io.collective.ValueCodec;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static junit.framework.TestCase.*;
+
+public class RemovalListenerTest {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    StringBuilder removals = new StringBuilder();
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    private void record(String key, Object value, RemovalCause cause) {
+        removals.append(key).append('=').append(value).append(':').append(cause).append(' ');
+    }
+
+    @Test
+    public void reportsEachCause() {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+        SimpleAgedCache cache = new SimpleAgedCache(clock, 2, EvictionPolicy.LRU);
+        cache.addRemovalListener(this::record, Runnable::run);
+
+        cache.put("aKey", "aValue", 2000);
+        cache.put("anotherKey", "anotherValue", 0);
+        cache.invalidate("anotherKey");
+        cache.put("aThirdKey", "aThirdValue", 0);
+        cache.put("aFourthKey", "aFourthValue", 0); // evicts aKey, the least recently used
+        cache.invalidate("aThirdKey");
+        cache.put("aFifthKey", "aFifthValue", 1000);
+        clock.offset(Duration.ofMillis(3000));
+        cache.size();
+
+        assertEquals("anotherKey=anotherValue:EXPLICIT aKey=aValue:EVICTED aThirdKey=aThirdValue:EXPLICIT "
+                + "aFifthKey=aFifthValue:EXPIRED ", removals.toString());
+    }
+
+    @Test
+    public void expiredOnRead() {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+        SimpleAgedCache cache = new SimpleAgedCache(clock);
+        cache.addRemovalListener(this::record, Runnable::run);
+        cache.put("aKey", "aValue", 2000);
+        cache.put("anotherKey", "anotherValue", 2000);
+
+        clock.offset(Duration.ofMillis(3000));
+        assertNull(cache.get("aKey"));
+        assertTrue(cache.invalidate("anotherKey"));
+
+        assertEquals("aKey=aValue:EXPIRED anotherKey=anotherValue:EXPIRED ", removals.toString());
+    }
+
+    @Test
+    public void inlineListenerMayInvalidateDuringExpiry() {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+        SimpleAgedCache cache = new SimpleAgedCache(clock);
+        cache.put("a", "aValue", 10);
+        cache.put("b", "bValue", 10);
+        cache.addRemovalListener((key, value, cause) -> {
+            record(key, value, cause);
+            cache.invalidate(key.equals("a") ? "b" : "a"); // its partner expired in the same wheel bucket
+        }, Runnable::run);
+
+        clock.offset(Duration.ofMillis(20));
+        assertEquals(0, cache.size());
+        assertTrue(removals.toString().contains("a=aValue:EXPIRED "));
+        assertTrue(removals.toString().contains("b=bValue:EXPIRED ")); // an expired entry invalidated is reported as expired
+        assertEquals(2, removals.toString().split(" ").length);
+    }
+
+    @Test
+    public void deliveredOnTheExecutor() throws InterruptedException {
+        SimpleAgedCache cache = new SimpleAgedCache(Clock.systemUTC(), ValueCodec.STRING);
+        CountDownLatch delivered = new CountDownLatch(1);
+        AtomicReference<String> seen = new AtomicReference<>();
+        cache.addRemovalListener((key, value, cause) -> {
+            seen.set(Thread.currentThread().getName() + " " + value);
+            delivered.countDown();
+        }, executor);
+
+        cache.put("aKey", "aValue", 0);
+        cache.invalidate("aKey");
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertFalse(seen.get().startsWith(Thread.currentThread().getName() + " "));
+        assertTrue(seen.get().endsWith(" aValue")); // off-heap values are decoded before their memory is reused
+    }
+
+    @Test
+    public void failingListenerDoesNotBreakTheCache() {
+        SimpleAgedCache cache = new SimpleAgedCache();
+        cache.addRemovalListener((key, value, cause) -> {
+            throw new IllegalStateException("listener failure");
+        }, command -> {
+            Thread thread = new Thread(command);
+            thread.setUncaughtExceptionHandler((t, e) -> { }); // keep the expected failure out of the test output
+            thread.start();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        cache.addRemovalListener(this::record, Runnable::run);
+
+        cache.put("aKey", "aValue", 0);
+        assertTrue(cache.invalidate("aKey"));
+
+        assertTrue(cache.isEmpty());
+        assertEquals("aKey=aValue:EXPLICIT ", removals.toString());
+    }
+
+    @Test
+    public void concurrentCacheReportsAcrossStripes() {
+        ConcurrentAgedCache cache = new ConcurrentAgedCache();
+        cache.addRemovalListener(this::record, Runnable::run);
+
+        cache.put("aKey", "aValue", 0);
+        cache.invalidate("aKey");
+
+        assertEquals("aKey=aValue:EXPLICIT ", removals.toString());
+    }
+}
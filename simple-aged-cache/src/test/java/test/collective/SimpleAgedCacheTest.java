@@ -54,6 +54,56 @@ public class SimpleAgedCacheTest {
         assertEquals("anotherValue", expired.get("anotherKey"));
     }
 
+    @Test
+    public void getAfterExpiredNeighboursAreRemoved() {
+        TestClock clock = new TestClock();
+
+        SimpleAgedCache many = new SimpleAgedCache(clock);
+        for (int i = 0; i < 1000; i++) {
+            many.put("key" + i, "value" + i, (i % 2 == 0) ? 1000 : 0);
+        }
+        assertEquals(1000, many.size());
+
+        clock.offset(Duration.ofMillis(1000));
+
+        assertEquals(500, many.size());
+        for (int i = 0; i < 1000; i++) {
+            Object expected = (i % 2 == 0) ? null : "value" + i;
+            assertEquals(expected, many.get("key" + i));
+        }
+    }
+
+    @Test
+    public void sizeTracksDeadlinesFarApart() {
+        TestClock clock = new TestClock();
+
+        SimpleAgedCache cache = new SimpleAgedCache(clock);
+        cache.put("aSecond", "aValue", 1000);
+        cache.put("anHour", "anotherValue", 3_600_000);
+        cache.put("aWeek", "yetAnotherValue", 604_800_000);
+        cache.put("forever", "aPermanentValue", 0);
+
+        clock.offset(Duration.ofMillis(500));
+        assertEquals(4, cache.size());
+
+        clock.offset(Duration.ofMillis(1000));
+        assertEquals(3, cache.size());
+
+        clock.offset(Duration.ofMinutes(59));
+        assertEquals(3, cache.size());
+
+        clock.offset(Duration.ofHours(1));
+        assertEquals(2, cache.size());
+
+        clock.offset(Duration.ofDays(7).minusMinutes(1));
+        assertEquals(2, cache.size());
+        assertEquals("yetAnotherValue", cache.get("aWeek"));
+
+        clock.offset(Duration.ofDays(7));
+        assertEquals(1, cache.size());
+        assertEquals("aPermanentValue", cache.get("forever"));
+    }
+
     static class TestClock extends Clock {
         Duration offset = Duration.ZERO;
 
@@ -0,0 +1,129 @@
+package test.collective;
+
+import io.collective.ExpiryMode;
+import io.collective.RemovalCause;
+import io.collective.SimpleAgedCache;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.TestCase.*;
+
+public class SlidingExpirationTest {
+    SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+    SimpleAgedCache cache = new SimpleAgedCache(clock);
+
+    @Test
+    public void readsExtendTheDeadline() {
+        cache.put("aSession", "aValue", 2000, ExpiryMode.AFTER_ACCESS);
+
+        for (int second = 1; second <= 10; second++) {
+            clock.offset(Duration.ofSeconds(second));
+            assertEquals("aValue", cache.get("aSession"));
+        }
+        assertEquals(1, cache.size());
+
+        clock.offset(Duration.ofMillis(12_000));
+        assertNull(cache.get("aSession"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void fixedRetentionIsNotExtended() {
+        cache.put("aKey", "aValue", 2000, ExpiryMode.AFTER_WRITE);
+        cache.put("aSession", "anotherValue", 2000, ExpiryMode.AFTER_ACCESS);
+
+        clock.offset(Duration.ofMillis(1500));
+        assertEquals("aValue", cache.get("aKey"));
+        assertEquals("anotherValue", cache.get("aSession"));
+
+        clock.offset(Duration.ofMillis(3000));
+        assertNull(cache.get("aKey"));
+        assertEquals(1, cache.size());
+        assertEquals("anotherValue", cache.get("aSession"));
+    }
+
+    @Test
+    public void unreadEntriesExpireOnSize() {
+        for (int i = 0; i < 1000; i++) {
+            cache.put("session" + i, "value" + i, 1000, ExpiryMode.AFTER_ACCESS);
+        }
+
+        // every other session is read often enough to cycle the access buffer many times over
+        for (int millis = 100; millis <= 3000; millis += 100) {
+            clock.offset(Duration.ofMillis(millis));
+            for (int i = 0; i < 1000; i += 2) {
+                assertEquals("value" + i, cache.get("session" + i));
+            }
+        }
+
+        assertEquals(500, cache.size());
+        for (int i = 0; i < 1000; i++) {
+            Object expected = (i % 2 == 0) ? "value" + i : null;
+            assertEquals(expected, cache.get("session" + i));
+        }
+    }
+
+    @Test
+    public void getAllExtendsTheDeadline() {
+        cache.put("aSession", "aValue", 2000, ExpiryMode.AFTER_ACCESS);
+
+        clock.offset(Duration.ofMillis(1500));
+        assertEquals("aValue", cache.getAll(new String[]{"aSession"})[0]);
+
+        clock.offset(Duration.ofMillis(3000));
+        assertEquals(1, cache.size());
+        assertEquals("aValue", cache.get("aSession"));
+    }
+
+    @Test
+    public void invalidateReportsALiveSessionAsExplicit() {
+        List<RemovalCause> causes = new ArrayList<>();
+        cache.addRemovalListener((key, value, cause) -> causes.add(cause), Runnable::run);
+        cache.put("aSession", "aValue", 2000, ExpiryMode.AFTER_ACCESS);
+
+        clock.offset(Duration.ofMillis(1500));
+        cache.get("aSession");
+        clock.offset(Duration.ofMillis(2500));
+
+        assertTrue(cache.invalidate("aSession"));
+        assertEquals(RemovalCause.EXPLICIT, causes.get(0));
+    }
+
+    @Test
+    public void releasedEntriesAreReused() {
+        cache.put("aSession", "aValue", 60_000, ExpiryMode.AFTER_ACCESS);
+        cache.get("aSession");
+        cache.invalidate("aSession");
+        cache.put("aKey", "anotherValue", 2000);
+
+        clock.offset(Duration.ofMillis(3000));
+        assertNull(cache.get("aKey"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullMode() {
+        cache.put("aKey", "aValue", 2000, null);
+    }
+
+    @Test
+    public void peekOnlyReadsFixedExpiryEntries() throws Exception {
+        cache.put("aKey", "aValue", 2000, ExpiryMode.AFTER_WRITE);
+        cache.put("aSession", "anotherValue", 2000, ExpiryMode.AFTER_ACCESS);
+        Method peek = SimpleAgedCache.class.getDeclaredMethod("peek", String.class);
+        peek.setAccessible(true);
+
+        assertEquals("aValue", peek.invoke(cache, "aKey"));
+        try {
+            peek.invoke(cache, "aSession");
+            fail("expected an expire-after-access entry to be rejected");
+        } catch (InvocationTargetException expected) {
+            assertTrue(expected.getCause() instanceof IllegalStateException);
+        }
+    }
+}
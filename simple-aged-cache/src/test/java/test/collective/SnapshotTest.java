@@ -0,0 +1,152 @@
+package test.collective;
+
+import io.collective.EvictionPolicy;
+import io.collective.SimpleAgedCache;
+import io.collective.ValueCodec;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+
+import static junit.framework.TestCase.*;
+
+public class SnapshotTest {
+    Path directory;
+
+    public SnapshotTest() throws IOException {
+        directory = Files.createTempDirectory("snapshot-test");
+    }
+
+    @After
+    public void after() {
+        for (File file : directory.toFile().listFiles()) {
+            file.delete();
+        }
+        directory.toFile().delete();
+    }
+
+    @Test
+    public void snapshotAndRestore() throws IOException {
+        Path snapshot = directory.resolve("cache.snapshot");
+        SimpleAgedCache cache = new SimpleAgedCache();
+        cache.put("aKey", "aValue", 0);
+        cache.put("anotherKey", "anotherValue", 4000);
+
+        assertEquals(2, cache.snapshotTo(snapshot, ValueCodec.STRING));
+
+        SimpleAgedCache restarted = new SimpleAgedCache();
+        assertEquals(2, restarted.restoreFrom(snapshot, ValueCodec.STRING));
+        assertEquals(2, restarted.size());
+        assertEquals("aValue", restarted.get("aKey"));
+        assertEquals("anotherValue", restarted.get("anotherKey"));
+    }
+
+    @Test
+    public void entriesExpiredWhileDownAreSkipped() throws IOException {
+        Path snapshot = directory.resolve("cache.snapshot");
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+        SimpleAgedCache cache = new SimpleAgedCache(clock);
+        cache.put("aKey", "aValue", 2000);
+        cache.put("anotherKey", "anotherValue", 4000);
+        cache.put("aPermanentKey", "aPermanentValue", 0);
+        cache.snapshotTo(snapshot, ValueCodec.STRING);
+
+        clock.offset(Duration.ofMillis(3000));
+        SimpleAgedCache restarted = new SimpleAgedCache(clock);
+
+        assertEquals(2, restarted.restoreFrom(snapshot, ValueCodec.STRING));
+        assertNull(restarted.get("aKey"));
+        assertEquals("anotherValue", restarted.get("anotherKey"));
+
+        // restored entries keep their original deadline
+        clock.offset(Duration.ofMillis(5000));
+        assertNull(restarted.get("anotherKey"));
+        assertEquals("aPermanentValue", restarted.get("aPermanentKey"));
+    }
+
+    @Test
+    public void liveKeysWinOverTheSnapshot() throws IOException {
+        Path snapshot = directory.resolve("cache.snapshot");
+        SimpleAgedCache cache = new SimpleAgedCache();
+        cache.put("aKey", "aValue", 0);
+        cache.put("anotherKey", "anotherValue", 0);
+        cache.snapshotTo(snapshot, ValueCodec.STRING);
+
+        SimpleAgedCache restarted = new SimpleAgedCache();
+        restarted.put("aKey", "aNewerValue", 0);
+
+        assertEquals(1, restarted.restoreFrom(snapshot, ValueCodec.STRING));
+        assertEquals("aNewerValue", restarted.get("aKey"));
+        assertEquals("anotherValue", restarted.get("anotherKey"));
+    }
+
+    @Test
+    public void offHeapSnapshotUsesTheCachesCodec() throws IOException {
+        Path snapshot = directory.resolve("cache.snapshot");
+        SimpleAgedCache cache = new SimpleAgedCache(Clock.systemUTC(), ValueCodec.BYTES);
+        byte[] large = new byte[3 << 20]; // larger than a slab and the file buffer
+        large[large.length - 1] = 42;
+        cache.put("aKey", new byte[]{1, 2, 3}, 0);
+        cache.put("aLargeKey", large, 0);
+        cache.snapshotTo(snapshot);
+
+        SimpleAgedCache restarted = new SimpleAgedCache(Clock.systemUTC(), ValueCodec.BYTES);
+        assertEquals(2, restarted.restoreFrom(snapshot));
+        assertEquals(3, ((byte[]) restarted.get("aKey"))[2]);
+        assertEquals(42, ((byte[]) restarted.get("aLargeKey"))[large.length - 1]);
+    }
+
+    @Test
+    public void boundedRestoreEvicts() throws IOException {
+        Path snapshot = directory.resolve("cache.snapshot");
+        SimpleAgedCache cache = new SimpleAgedCache();
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key" + i, "value" + i, 0);
+        }
+        cache.snapshotTo(snapshot, ValueCodec.STRING);
+
+        SimpleAgedCache bounded = new SimpleAgedCache(100, EvictionPolicy.LRU);
+        assertEquals(1000, bounded.restoreFrom(snapshot, ValueCodec.STRING));
+        assertEquals(100, bounded.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void onHeapCacheNeedsACodec() throws IOException {
+        new SimpleAgedCache().snapshotTo(directory.resolve("cache.snapshot"));
+    }
+
+    @Test
+    public void rejectsTruncatedSnapshots() throws IOException {
+        Path snapshot = directory.resolve("cache.snapshot");
+        SimpleAgedCache cache = new SimpleAgedCache();
+        cache.put("aKey", "aValue", 0);
+        cache.put("anotherKey", "anotherValue", 0);
+        cache.snapshotTo(snapshot, ValueCodec.STRING);
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 4);
+        }
+
+        try {
+            new SimpleAgedCache().restoreFrom(snapshot, ValueCodec.STRING);
+            fail("expected a truncated snapshot to be rejected");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws IOException {
+        Path notASnapshot = Files.write(directory.resolve("notes.txt"), "not a snapshot at all".getBytes());
+        try {
+            new SimpleAgedCache().restoreFrom(notASnapshot, ValueCodec.STRING);
+            fail("expected a foreign file to be rejected");
+        } catch (IOException expected) {
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package test.collective;
+
+import io.collective.CachedTicker;
+import io.collective.SimpleAgedCache;
+import io.collective.Ticker;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static junit.framework.TestCase.*;
+
+public class TickerTest {
+
+    @Test
+    public void getExpiredOnAManualTicker() {
+        long[] now = {1_000};
+        SimpleAgedCache expired = new SimpleAgedCache(() -> now[0]);
+        expired.put("aKey", "aValue", 2000);
+        expired.put("anotherKey", "anotherValue", 4000);
+
+        now[0] += 3000;
+
+        assertNull(expired.get("aKey"));
+        assertEquals(1, expired.size());
+        assertEquals("anotherValue", expired.get("anotherKey"));
+    }
+
+    @Test
+    public void cachedTickerFollowsItsClock() throws InterruptedException {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+        try (CachedTicker ticker = new CachedTicker(clock, 1)) {
+            long start = ticker.millis();
+            assertTrue(Math.abs(start - clock.millis()) < 500);
+
+            clock.offset(Duration.ofMillis(3000));
+            Thread.sleep(100); // several resolutions for the background thread to catch up
+
+            assertTrue(ticker.millis() - start >= 3000);
+        }
+    }
+
+    @Test
+    public void getExpiredOnACachedTicker() throws InterruptedException {
+        SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+        try (CachedTicker ticker = new CachedTicker(clock, 1)) {
+            SimpleAgedCache expired = new SimpleAgedCache(ticker);
+            expired.put("aKey", "aValue", 2000);
+            expired.put("anotherKey", "anotherValue", 4000);
+
+            clock.offset(Duration.ofMillis(3000));
+            Thread.sleep(100);
+
+            assertNull(expired.get("aKey"));
+            assertEquals("anotherValue", expired.get("anotherKey"));
+        }
+    }
+
+    @Test
+    public void sharedCachedTicker() {
+        assertSame(Ticker.cached(), Ticker.cached());
+        assertTrue(Math.abs(Ticker.cached().millis() - System.currentTimeMillis()) < 500);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveResolution() {
+        new CachedTicker(Clock.systemUTC(), 0);
+    }
+}
@@ -0,0 +1,149 @@
+package test.collective;
+
+import io.collective.EvictionPolicy;
+import io.collective.TieredAgedCache;
+import io.collective.Ticker;
+import io.collective.ValueCodec;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.*;
+
+public class TieredAgedCacheTest {
+    Path directory;
+    SimpleAgedCacheTest.TestClock clock = new SimpleAgedCacheTest.TestClock();
+    TieredAgedCache cache;
+
+    public TieredAgedCacheTest() throws IOException {
+        directory = Files.createTempDirectory("tiered-test");
+        cache = new TieredAgedCache(Ticker.of(clock), 2, EvictionPolicy.LRU, ValueCodec.STRING, directory, 4096, 60_000);
+    }
+
+    @After
+    public void after() throws IOException {
+        cache.close();
+        for (File file : directory.toFile().listFiles()) {
+            file.delete();
+        }
+        directory.toFile().delete();
+    }
+
+    @Test
+    public void evictedEntriesAreDemotedAndPromoted() {
+        cache.put("aKey", "aValue", 0);
+        cache.put("anotherKey", "anotherValue", 0);
+        cache.put("aThirdKey", "aThirdValue", 0);
+
+        assertEquals(2, cache.memorySize());
+        assertEquals(3, cache.size());
+        assertTrue(cache.diskBytes() > 0);
+
+        assertEquals("aValue", cache.get("aKey"));
+        assertEquals(3, cache.size());
+        assertEquals("anotherValue", cache.get("anotherKey"));
+        assertEquals("aThirdValue", cache.get("aThirdKey"));
+    }
+
+    @Test
+    public void deadlinesCarryAcrossTiers() {
+        cache.put("aKey", "aValue", 2000);
+        cache.put("anotherKey", "anotherValue", 4000);
+        cache.put("aThirdKey", "aThirdValue", 0);
+
+        clock.offset(Duration.ofMillis(1000));
+        assertEquals("aValue", cache.get("aKey")); // promoted with a second left
+
+        cache.put("aFourthKey", "aFourthValue", 0);
+        clock.offset(Duration.ofMillis(3000));
+        assertNull(cache.get("aKey"));
+        assertEquals("anotherValue", cache.get("anotherKey"));
+
+        clock.offset(Duration.ofMillis(5000));
+        assertNull(cache.get("anotherKey"));
+    }
+
+    @Test
+    public void loaderRunsOnlyWhenBothTiersMiss() {
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            cache.put("key" + i, "value" + i, 0);
+        }
+
+        for (int i = 0; i < 12; i++) {
+            String key = "key" + i;
+            assertEquals("value" + i, cache.getOrLoad(key, k -> {
+                loads.incrementAndGet();
+                return "value" + k.substring(3);
+            }, 0));
+        }
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void expiredSegmentsAreReclaimed() throws IOException {
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key" + i, "value" + i, 2000);
+        }
+        long written = cache.diskBytes();
+        assertTrue(written > 4096);
+
+        clock.offset(Duration.ofMillis(3000));
+        assertTrue(cache.compact() > 0);
+        assertTrue(cache.diskBytes() < written);
+        assertNull(cache.get("key0"));
+        assertEquals(0, cache.memorySize());
+    }
+
+    @Test
+    public void compactionKeepsLiveEntries() throws IOException {
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key" + i, "value" + i, 0);
+        }
+        for (int i = 0; i < 1000; i += 4) {
+            assertTrue(cache.invalidate("key" + i));
+        }
+        for (int i = 0; i < 1000; i += 4) {
+            cache.put("key" + i, "again" + i, 0); // rewritten records leave the earlier segments mostly dead
+        }
+        cache.compact();
+
+        assertEquals(1000, cache.size());
+        for (int i = 0; i < 1000; i++) {
+            Object expected = (i % 4 == 0) ? "again" + i : "value" + i;
+            assertEquals(expected, cache.get("key" + i));
+        }
+    }
+
+    @Test
+    public void diskTierOnlyTouchesItsOwnFiles() throws IOException {
+        cache.close();
+        Path foreign = Files.write(directory.resolve("segment-00000000.log"), new byte[]{1, 2, 3});
+        cache = new TieredAgedCache(Ticker.of(clock), 1, EvictionPolicy.LRU, ValueCodec.STRING, directory, 4096, 60_000);
+
+        for (int i = 0; i < 500; i++) {
+            cache.put("key" + i, "value" + i, 0);
+        }
+        assertTrue(cache.diskBytes() > 4096);
+        assertEquals(3, Files.size(foreign));
+
+        cache.close();
+        assertEquals(1, directory.toFile().listFiles().length);
+        assertTrue(Files.exists(foreign));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateKeyOnDisk() {
+        cache.put("aKey", "aValue", 0);
+        cache.put("anotherKey", "anotherValue", 0);
+        cache.put("aThirdKey", "aThirdValue", 0);
+
+        cache.put("aKey", "aFourthValue", 0);
+    }
+}
@@ -0,0 +1,99 @@
+package test.collective
+
+import io.collective.SuspendingAgedKache
+import junit.framework.TestCase.*
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.cancelAndJoin
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.yield
+import org.junit.Test
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+
+class SuspendingAgedKacheTest {
+
+    @Test
+    fun getOrPut() = runBlocking<Unit> {
+        val cache = SuspendingAgedKache()
+        val loads = AtomicInteger()
+
+        assertEquals("aValue", cache.getOrPut("aKey", 2000) { loads.incrementAndGet(); "aValue" })
+        assertEquals("aValue", cache.getOrPut("aKey", 2000) { loads.incrementAndGet(); "anotherValue" })
+
+        assertEquals(1, loads.get())
+        assertEquals(1, cache.size())
+    }
+
+    @Test
+    fun getOrPutExpired() = runBlocking<Unit> {
+        val clock = SimpleAgedCacheTest.TestClock()
+        val cache = SuspendingAgedKache(clock)
+
+        cache.getOrPut("aKey", 2000) { "aValue" }
+        clock.offset(Duration.ofMillis(3000))
+
+        assertNull(cache.get("aKey"))
+        assertEquals("anotherValue", cache.getOrPut("aKey", 2000) { "anotherValue" })
+    }
+
+    @Test
+    fun concurrentMissesShareOneLoad() = runBlocking<Unit>(Dispatchers.Default) {
+        val cache = SuspendingAgedKache()
+        val loads = AtomicInteger()
+
+        val values = (1..10_000).map {
+            async {
+                cache.getOrPut("aKey") {
+                    loads.incrementAndGet()
+                    delay(100) // a slow backend keeps the load in flight while the others miss
+                    "aValue"
+                }
+            }
+        }.awaitAll()
+
+        assertTrue(values.all { it == "aValue" })
+        assertEquals(1, loads.get())
+    }
+
+    @Test
+    fun failedLoadIsNotCached() = runBlocking<Unit> {
+        val cache = SuspendingAgedKache()
+
+        try {
+            cache.getOrPut("aKey") { throw IllegalStateException("backend down") }
+            fail("expected the loader's exception")
+        } catch (expected: IllegalStateException) {
+            assertEquals("backend down", expected.message)
+        }
+
+        assertTrue(cache.isEmpty())
+        assertEquals("aValue", cache.getOrPut("aKey") { "aValue" })
+    }
+
+    @Test
+    fun waiterTakesOverACancelledLoad() = runBlocking<Unit> {
+        val cache = SuspendingAgedKache()
+        val started = CompletableDeferred<Unit>()
+
+        val first = launch {
+            cache.getOrPut("aKey") {
+                started.complete(Unit)
+                delay(Long.MAX_VALUE)
+                "never"
+            }
+        }
+        started.await()
+        val second = async { cache.getOrPut("aKey") { "aValue" } }
+        yield() // let the second caller start waiting on the first load
+
+        first.cancelAndJoin()
+
+        assertEquals("aValue", second.await())
+        assertEquals("aValue", cache.get("aKey"))
+    }
+}
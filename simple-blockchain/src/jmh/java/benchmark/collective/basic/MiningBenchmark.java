@@ -0,0 +1,71 @@
+package benchmark.collective.basic;
+
+import io.collective.basic.Block;
+import io.collective.basic.Blockchain;
+import io.collective.basic.ParallelMiner;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MiningBenchmark {
+    //Description:
+    //   mines one block per operation across a ParallelMiner's workers; 0 workers is Blockchain.mine, the
+    //   single-threaded baseline
+    //   blocks per second depends on how lucky each search is, so the hashes counter reports hashes per
+    //   second as well; that is the figure that should grow with the number of workers
+    //   every operation mines a block with a new timestamp, so no two operations repeat the same search
+
+    @Param({"0", "1", "2", "4", "8"})
+    int workers;
+
+    ParallelMiner miner;
+    String previousHash;
+    long timestamp;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Hashes {
+        public long hashes;
+    }
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException {
+        miner = (workers == 0) ? null : new ParallelMiner(workers);
+        previousHash = Blockchain.mine(new Block("0", 0, 0)).getHash();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (miner != null) {
+            miner.close();
+        }
+    }
+
+    @Benchmark
+    public Block mine(Hashes counter) throws NoSuchAlgorithmException, InterruptedException {
+        Block block = new Block(previousHash, ++timestamp, 0);
+        if (miner == null) {
+            Block mined = Blockchain.mine(block);
+            counter.hashes += mined.getNonce() + 1L; // the sequential search tried every nonce up to the winner
+            return mined;
+        }
+        long before = miner.hashCount();
+        Block mined = miner.mine(block);
+        counter.hashes += miner.hashCount() - before;
+        return mined;
+    }
+}
@@ -0,0 +1,63 @@
+package benchmark.collective.basic;
+
+import io.collective.basic.Block;
+import io.collective.basic.Blockchain;
+import io.collective.basic.Difficulty;
+import io.collective.basic.ParallelValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ValidationBenchmark {
+    //Description:
+    //   validates a whole valid chain per operation across a ParallelValidator's workers; 0 workers is
+    //   Blockchain.isValid, the single-threaded baseline
+    //   the chain has difficulty zero so building it takes one hash per block; validating costs the same
+    //   hash and link checks at any difficulty
+
+    @Param({"0", "1", "2", "4", "8"})
+    int workers;
+
+    @Param({"1000000"})
+    int blocks;
+
+    Blockchain chain;
+    ParallelValidator validator;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException {
+        Difficulty anyHash = new Difficulty(0);
+        chain = new Blockchain(anyHash);
+        String previousHash = "0";
+        for (int i = 0; i < blocks; i++) {
+            Block mined = Blockchain.mine(new Block(previousHash, i, 0), anyHash);
+            chain.add(mined);
+            previousHash = mined.getHash();
+        }
+        validator = (workers == 0) ? null : new ParallelValidator(workers, 4096);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (validator != null) {
+            validator.close();
+        }
+    }
+
+    @Benchmark
+    public boolean isValid() throws NoSuchAlgorithmException, InterruptedException {
+        return (validator == null) ? chain.isValid() : validator.isValid(chain);
+    }
+}
@@ -17,6 +17,14 @@ public class Block {
         this.hash = this.calculatedHash(); // new hash is calculated upon instantiation
     }
 
+    // constructor for a block read back from a BlockStore, which keeps the hash it was stored with
+    Block(String previousHash, long timestamp, int nonce, String hash) {
+        this.previousHash = previousHash;
+        this.timestamp = timestamp;
+        this.nonce = nonce;
+        this.hash = hash;
+    }
+
     public String getPreviousHash() {
         return previousHash;
     }
@@ -0,0 +1,154 @@
+package io.collective.basic;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+final class BlockHasher {
+    //Description:
+    //   the allocation-free hashing path used by mining and validation
+    //   a block hashes previousHash + timestamp + nonce, exactly as Block.calculatedHash does; here the
+    //   previousHash and timestamp bytes are encoded once into a reusable input buffer, each nonce's digits
+    //   are written in place after them, and the SHA-256 digest is taken into a reusable 32-byte array
+    //   whether a block is mined is read off the raw digest, and a stored hash is checked by comparing its
+    //   hex characters against the digest, so no String is built unless a caller asks for one
+    //   a hasher is not thread-safe; forThread hands each thread its own, along with its own MessageDigest
+
+    private static final int DIGEST_BYTES = 32;
+    private static final int MAX_NONCE_DIGITS = 11; // "-2147483648"
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<BlockHasher> HASHERS = ThreadLocal.withInitial(BlockHasher::new);
+
+    private final MessageDigest sha256;
+    private final byte[] digest = new byte[DIGEST_BYTES];
+    private byte[] input = new byte[128];
+    private int prefixLength = 0;
+
+    private BlockHasher() {
+        try {
+            this.sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("every JVM provides SHA-256", e);
+        }
+    }
+
+    static BlockHasher forThread() {
+        return HASHERS.get();
+    }
+
+    void reset(String previousHash, long timestamp) {
+        //Description:
+        //   a method to encode the part of a block's input shared by every nonce
+        //Parameters:
+        //   previousHash | String | the previous block's hash
+        //   timestamp | long | the block's timestamp
+        //Returns:
+        //   void
+        String prefix = String.valueOf(previousHash); // a null hash concatenates as "null" in Block too
+        int length = prefix.length();
+        ensureCapacity(length + 20 + MAX_NONCE_DIGITS);
+        int position = 0;
+        for (int i = 0; (i < length) && (position != -1); i++) {
+            char c = prefix.charAt(i);
+            input[position++] = (byte) c;
+            if (c >= 0x80) {
+                position = -1; // not ASCII
+            }
+        }
+        if (position == -1) {
+            // encode it the way Block does; ASCII is copied directly, which is what any ASCII-compatible charset does
+            byte[] encoded = prefix.getBytes();
+            ensureCapacity(encoded.length + 20 + MAX_NONCE_DIGITS);
+            System.arraycopy(encoded, 0, input, 0, encoded.length);
+            position = encoded.length;
+        }
+        prefixLength = writeDigits(timestamp, position);
+    }
+
+    void reset(CompactBlock block) {
+        //Description:
+        //   a method to encode the part of a compact block's input shared by every nonce
+        //   a binary previous hash is written as hex digits straight from its longs, without a String
+        //Parameters:
+        //   block | CompactBlock | the block to hash
+        //Returns:
+        //   void
+        ensureCapacity(64 + 20 + MAX_NONCE_DIGITS);
+        int position = block.writePrevious(input);
+        if (position == -1) {
+            reset(block.getPreviousHash(), block.getTimestamp());
+        } else {
+            prefixLength = writeDigits(block.getTimestamp(), position);
+        }
+    }
+
+    boolean mines(int nonce, Difficulty difficulty) {
+        //Description:
+        //   a method to hash the block with the given nonce and check whether it is mined
+        //   the digest is kept for matches until the next call
+        //Parameters:
+        //   nonce | int | the nonce to try
+        //   difficulty | Difficulty | the target the hash must meet
+        //Returns:
+        //   true when the digest meets the difficulty
+        int length = writeDigits(nonce, prefixLength);
+        sha256.update(input, 0, length);
+        try {
+            sha256.digest(digest, 0, DIGEST_BYTES);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e); // the array always holds a SHA-256 digest
+        }
+        return difficulty.isMetBy(digest);
+    }
+
+    boolean matches(String hash) {
+        //Description:
+        //   a method to compare the last digest with a hash in the 64-character lower-case hex form of Block
+        //Parameters:
+        //   hash | String | the hash to check
+        //Returns:
+        //   true when the hash is the hex form of the last digest
+        if ((hash == null) || (hash.length() != DIGEST_BYTES * 2)) {
+            return false;
+        }
+        for (int i = 0; i < DIGEST_BYTES; i++) {
+            if ((hash.charAt(2 * i) != HEX[(digest[i] >> 4) & 0xF]) || (hash.charAt(2 * i + 1) != HEX[digest[i] & 0xF])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean matches(CompactBlock block) {
+        // a method to compare the last digest with a compact block's hash, long by long
+        return block.hashIs(digest);
+    }
+
+    private int writeDigits(long value, int position) {
+        // write the decimal digits of a value into the input after position, returning the new end
+        if (value == 0) {
+            input[position] = '0';
+            return position + 1;
+        }
+        long remaining = value;
+        if (remaining < 0) {
+            input[position++] = '-';
+        }
+        int end = position;
+        for (long scan = remaining; scan != 0; scan /= 10) {
+            end++;
+        }
+        for (int i = end - 1; i >= position; i--) {
+            input[i] = (byte) ('0' + Math.abs(remaining % 10));
+            remaining /= 10;
+        }
+        return end;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (input.length < capacity) {
+            input = Arrays.copyOf(input, Math.max(capacity, input.length * 2));
+        }
+    }
+}
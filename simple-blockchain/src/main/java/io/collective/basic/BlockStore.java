@@ -0,0 +1,389 @@
+package io.collective.basic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class BlockStore implements AutoCloseable {
+    //Description:
+    //   an append-only store that keeps a chain's blocks on disk, so a chain survives a restart and can grow
+    //   past the heap
+    //   every block is a fixed-width record of RECORD_BYTES, so the block at a height is found by arithmetic:
+    //      byte previous kind | byte literal length | 2 unused | int nonce | long timestamp |
+    //      32 bytes previous hash | 32 bytes hash
+    //   hashes are stored as the 32 bytes their 64 hex digits spell; a previous hash that is not a hash, like a
+    //   genesis block's "0", is stored as its UTF-8 bytes when it fits in 32 of them
+    //   records are appended through a FileChannel to segment files of blocksPerSegment records each and read
+    //   back through memory-mapped buffers; each segment is mapped once, at its full size, so the segment
+    //   being appended to is mapped through its open channel, which grows the file to that size ahead of the
+    //   records, and appends land inside the mapping
+    //   the hash-to-height index is a second file holding the first 8 bytes of each block's hash, in height
+    //   order; opening a store loads only that file into an open-addressing table, and a lookup confirms the
+    //   full hash against the mapped record, so no block is read until it is asked for
+    //   a block's record is written before its index entry; on opening, whichever of the two files is
+    //   longer is cut back to the blocks both hold, dropping an append a crash left half written
+    //   appends reach the disk when the operating system writes them back, or at once after flush
+    //   like Blockchain it is meant for one thread at a time; the one exception is reading, which several
+    //   threads may do at once after mapAll has mapped every block, as ParallelValidator does
+
+    static final int RECORD_BYTES = 80;
+    private static final int DEFAULT_BLOCKS_PER_SEGMENT = 1 << 20; // 80 MiB segments
+    private static final int HASH_BYTES = 32;
+    private static final int INDEX_BYTES = 8; // the hash prefix kept for each height
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NO_HEIGHT = -1; // an unused index slot
+    private static final byte HEX_HASH = 0;
+    private static final byte LITERAL = 1;
+    private static final byte NULL = 2;
+    private static final String INDEX_FILE = "hashes.idx";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path directory;
+    private final int blocksPerSegment;
+    private final FileChannel index;
+    private FileChannel active; // the segment being appended to
+    private int activeSegment = -1;
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0]; // null until a segment is first read
+    private long[] prefixes = new long[INITIAL_CAPACITY]; // each height's hash prefix
+    private int[] slots = new int[INITIAL_CAPACITY * 2]; // heights, probed by hash prefix
+    private int count = 0;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    private final ByteBuffer prefix = ByteBuffer.allocate(INDEX_BYTES);
+
+    // constructor to accept the directory of the store and the number of blocks in a segment file
+    //    a store already in the directory is reopened; its blocksPerSegment must be the one it was written with
+    public BlockStore(Path directory, int blocksPerSegment) throws IOException {
+        if ((directory == null) || (blocksPerSegment <= 0)) {
+            throw new IllegalArgumentException("directory cannot be null and blocksPerSegment must be positive");
+        }
+        this.directory = directory;
+        this.blocksPerSegment = blocksPerSegment;
+        Arrays.fill(slots, NO_HEIGHT);
+        Files.createDirectories(directory);
+
+        // count the whole records in the segments, which must all be full but the last
+        long stored = 0;
+        int segmentCount = 0;
+        while (Files.exists(segmentPath(segmentCount))) {
+            long records = Files.size(segmentPath(segmentCount)) / RECORD_BYTES;
+            if ((stored % blocksPerSegment != 0) || (records > blocksPerSegment)) {
+                throw new IOException("the segments in " + directory + " do not hold "
+                        + blocksPerSegment + " blocks each");
+            }
+            stored += records;
+            segmentCount++;
+        }
+        this.index = FileChannel.open(directory.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long blocks = Math.min(stored, index.size() / INDEX_BYTES);
+        if (blocks > Integer.MAX_VALUE) {
+            throw new IOException("a store holds at most " + Integer.MAX_VALUE + " blocks");
+        }
+
+        // cut both files back to the blocks they both hold, then load the index
+        index.truncate(blocks * INDEX_BYTES);
+        while ((segmentCount > 0) && ((long) (segmentCount - 1) * blocksPerSegment >= blocks)) {
+            Files.delete(segmentPath(segmentCount - 1));
+            segmentCount--;
+        }
+        if (segmentCount > 0) {
+            try (FileChannel last = FileChannel.open(segmentPath(segmentCount - 1), StandardOpenOption.WRITE)) {
+                last.truncate((blocks - (long) (segmentCount - 1) * blocksPerSegment) * RECORD_BYTES);
+            }
+        }
+        segments = new MappedByteBuffer[segmentCount];
+        if (blocks > 0) {
+            ByteBuffer hashes = index.map(FileChannel.MapMode.READ_ONLY, 0, blocks * INDEX_BYTES);
+            for (int height = 0; height < blocks; height++) {
+                link(hashes.getLong(height * INDEX_BYTES));
+            }
+        }
+    }
+
+    // overloaded constructor with segments of 1048576 blocks
+    public BlockStore(Path directory) throws IOException {
+        this(directory, DEFAULT_BLOCKS_PER_SEGMENT);
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("blocks-%08d.dat", segment));
+    }
+
+    public void append(Block block) throws IOException {
+        //Description:
+        //   a method to add a block at the next height
+        //Parameters:
+        //   block | Block | a block whose hash is 64 lower-case hex digits, as Block computes it, and whose
+        //      previous hash is either such a hash, null, or at most 32 bytes of UTF-8
+        //Returns:
+        //   void
+        if (block == null) {
+            throw new IllegalArgumentException("block cannot be null");
+        }
+        if (count == Integer.MAX_VALUE) {
+            throw new IllegalStateException("a store holds at most " + Integer.MAX_VALUE + " blocks");
+        }
+        if (!CompactBlock.isHex(block.getHash())) {
+            throw new IllegalArgumentException("hash must be 64 lower-case hex digits");
+        }
+        Arrays.fill(record.array(), (byte) 0);
+        writePrevious(block.getPreviousHash());
+        record.putInt(4, block.getNonce());
+        record.putLong(8, block.getTimestamp());
+        writeHex(block.getHash(), 48);
+
+        int segment = count / blocksPerSegment;
+        if (segment == segments.length) {
+            // the last segment is full, or there is none yet
+            segments = Arrays.copyOf(segments, segment + 1);
+        }
+        writeFully(activate(segment), record, (long) (count % blocksPerSegment) * RECORD_BYTES);
+
+        prefix.clear();
+        prefix.putLong(0, record.getLong(48));
+        writeFully(index, prefix, (long) count * INDEX_BYTES);
+        link(record.getLong(48));
+    }
+
+    public Block get(int height) {
+        //Description:
+        //   a method to read the block at a height from its mapped segment
+        //Parameters:
+        //   height | int | the block's position in the chain, from 0
+        //Returns:
+        //   block | Block | the stored block, with the hash it was appended with
+        MappedByteBuffer segment = recordsOf(height);
+        int offset = (height % blocksPerSegment) * RECORD_BYTES;
+        return new Block(readPrevious(segment, offset), segment.getLong(offset + 8), segment.getInt(offset + 4),
+                readHex(segment, offset + 48));
+    }
+
+    CompactBlock compactAt(int height) {
+        // the block at a height in binary, its hashes read from the mapping as longs without hex rendering
+        MappedByteBuffer segment = recordsOf(height);
+        int offset = (height % blocksPerSegment) * RECORD_BYTES;
+        long[] previous = null;
+        String previousText = null;
+        if (segment.get(offset) == HEX_HASH) {
+            previous = readWords(segment, offset + 16);
+        } else {
+            previousText = readPrevious(segment, offset);
+        }
+        return new CompactBlock(previous, previousText, segment.getLong(offset + 8), segment.getInt(offset + 4),
+                readWords(segment, offset + 48));
+    }
+
+    public long timestampAt(int height) {
+        // the timestamp of the block at a height, without building the block
+        return recordsOf(height).getLong((height % blocksPerSegment) * RECORD_BYTES + 8);
+    }
+
+    public int heightOf(String hash) {
+        //Description:
+        //   a method to find a block by its hash through the index
+        //Parameters:
+        //   hash | String | the block's hash
+        //Returns:
+        //   the height of the lowest block with that hash, -1 when no block has it
+        if (!CompactBlock.isHex(hash)) {
+            return -1;
+        }
+        long key = Long.parseUnsignedLong(hash.substring(0, 16), 16);
+        int mask = slots.length - 1;
+        for (int slot = spread(key) & mask; slots[slot] != NO_HEIGHT; slot = (slot + 1) & mask) {
+            int height = slots[slot];
+            if ((prefixes[height] == key)
+                    && hash.equals(readHex(recordsOf(height), (height % blocksPerSegment) * RECORD_BYTES + 48))) {
+                return height;
+            }
+        }
+        return -1;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public void flush() throws IOException {
+        // force the appended records and index entries to the disk
+        if (active != null) {
+            active.force(false);
+        }
+        index.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        // close the files; mapped segments are released when they are collected
+        if (active != null) {
+            active.close();
+        }
+        index.close();
+        Arrays.fill(segments, null);
+    }
+
+    private MappedByteBuffer recordsOf(int height) {
+        // the mapping of the segment holding a height, mapped or remapped so that it covers the height
+        if ((height < 0) || (height >= count)) {
+            throw new IndexOutOfBoundsException("height " + height + " for a store of " + count + " blocks");
+        }
+        int segment = height / blocksPerSegment;
+        if (segments[segment] == null) {
+            map(segment);
+        }
+        return segments[segment];
+    }
+
+    void mapAll() {
+        //Description:
+        //   a method to map every segment now, so later reads only read the mapping array until an append
+        //   starts a new segment; reads on other threads are safe once this call happens-before them, as
+        //   handing tasks to an executor after it does
+        //Parameters:
+        //   N/A
+        //Returns:
+        //   void
+        for (int segment = 0; segment < segments.length; segment++) {
+            if (segments[segment] == null) {
+                map(segment);
+            }
+        }
+    }
+
+    private void map(int segment) {
+        // map a segment over the space of all the blocks it will hold; a full segment is mapped read-only,
+        //    and the last one through the channel appends write to, which extends the file to that size
+        long size = (long) blocksPerSegment * RECORD_BYTES;
+        try {
+            if ((long) (segment + 1) * blocksPerSegment <= count) {
+                try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+                    segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                }
+            } else {
+                segments[segment] = activate(segment).map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot map segment " + segment, e);
+        }
+    }
+
+    private FileChannel activate(int segment) throws IOException {
+        // the channel of the segment being appended to, opened when appends or reads move on to a new segment
+        if (activeSegment != segment) {
+            if (active != null) {
+                active.close();
+            }
+            active = FileChannel.open(segmentPath(segment),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            activeSegment = segment;
+        }
+        return active;
+    }
+
+    private void link(long key) {
+        // add the next height to the index under its hash prefix
+        if (count == prefixes.length) {
+            prefixes = Arrays.copyOf(prefixes, prefixes.length * 2);
+        }
+        if ((count + 1) * 2 > slots.length) {
+            // refile in height order, which place relies on to keep the lowest height of a hash first
+            slots = new int[slots.length * 2];
+            Arrays.fill(slots, NO_HEIGHT);
+            for (int height = 0; height < count; height++) {
+                place(height);
+            }
+        }
+        prefixes[count] = key;
+        place(count);
+        count++;
+    }
+
+    private void place(int height) {
+        // file a height in the first free slot of its probe sequence; heights are placed in order, so the
+        // lowest of several blocks with one hash is probed first
+        int mask = slots.length - 1;
+        int slot = spread(prefixes[height]) & mask;
+        while (slots[slot] != NO_HEIGHT) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = height;
+    }
+
+    private static int spread(long key) {
+        // the hash prefix is already uniformly distributed; fold its halves together
+        return (int) (key ^ (key >>> 32));
+    }
+
+    private void writePrevious(String previousHash) {
+        // fill the record's previous-hash fields: a hash as its bytes, anything else as up to 32 bytes of text
+        if (previousHash == null) {
+            record.put(0, NULL);
+            record.put(1, (byte) 0);
+        } else if (CompactBlock.isHex(previousHash)) {
+            record.put(0, HEX_HASH);
+            record.put(1, (byte) 0);
+            writeHex(previousHash, 16);
+        } else {
+            byte[] literal = previousHash.getBytes(StandardCharsets.UTF_8);
+            if (literal.length > HASH_BYTES) {
+                throw new IllegalArgumentException("previousHash must be a hash or at most 32 bytes of UTF-8");
+            }
+            record.put(0, LITERAL);
+            record.put(1, (byte) literal.length);
+            record.put(16, literal);
+        }
+    }
+
+    private static String readPrevious(MappedByteBuffer segment, int offset) {
+        byte kind = segment.get(offset);
+        if (kind == NULL) {
+            return null;
+        }
+        if (kind == HEX_HASH) {
+            return readHex(segment, offset + 16);
+        }
+        byte[] literal = new byte[segment.get(offset + 1)];
+        segment.get(offset + 16, literal);
+        return new String(literal, StandardCharsets.UTF_8);
+    }
+
+    private static long[] readWords(MappedByteBuffer segment, int position) {
+        return new long[]{segment.getLong(position), segment.getLong(position + 8),
+                segment.getLong(position + 16), segment.getLong(position + 24)};
+    }
+
+    private void writeHex(String hash, int position) {
+        for (int i = 0; i < HASH_BYTES; i++) {
+            int high = Character.digit(hash.charAt(2 * i), 16);
+            int low = Character.digit(hash.charAt(2 * i + 1), 16);
+            record.put(position + i, (byte) ((high << 4) | low));
+        }
+    }
+
+    private static String readHex(MappedByteBuffer segment, int position) {
+        char[] hex = new char[HASH_BYTES * 2];
+        for (int i = 0; i < HASH_BYTES; i++) {
+            byte b = segment.get(position + i);
+            hex[2 * i] = HEX[(b >> 4) & 0xF];
+            hex[2 * i + 1] = HEX[b & 0xF];
+        }
+        return new String(hex);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -1,12 +1,93 @@
 package io.collective.basic;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 
 public class Blockchain {
+    //Description:
+    //   a chain of blocks, each mined to the chain's difficulty and linked to the hash of the one before it
+    //   a chain either keeps one difficulty for every block or retargets: every retargetInterval blocks the
+    //   difficulty is adjusted from how long the last interval took, using the blocks' own timestamps, so
+    //   blocks keep arriving about once per targetBlockInterval however much hashing power mines them
+    //   the difficulty a block must meet depends only on the blocks before it, so validation recomputes it
+    //   the same way mining did
+    //   validation is incremental: the chain remembers how many of its leading blocks are known valid, and
+    //   the next validation starts after them, checking only the new tail and its link to the last verified
+    //   block; add copies each block into a CompactBlock and only appends, so nothing done to the chain or
+    //   to a Block after it was added can invalidate that prefix; resetVerified forgets it all the same
+    //   blocks are held in memory, or in a BlockStore so the chain outlives the process and the heap; a chain
+    //   opened over a store that already holds blocks rebuilds its retarget periods from their timestamps and
+    //   validates them all again the first time it is asked
 
-    // an ArrayList for holding our blocks
-    private ArrayList<Block> blockchain = new ArrayList<Block>();
+    // an ArrayList for holding our blocks in compact form, unless they are kept in a store
+    private ArrayList<CompactBlock> blockchain = new ArrayList<CompactBlock>();
+    private final BlockStore store;
+    // the difficulty of each retarget period; period p covers blocks p * retargetInterval onwards
+    private final ArrayList<Difficulty> periods = new ArrayList<Difficulty>();
+    private final long targetBlockInterval;
+    private final int retargetInterval;
+    // the watermark: blocks before this index have been validated
+    private int verified = 0;
+
+    // constructor for a chain whose blocks all start with two zero hex digits
+    public Blockchain() {
+        this(Difficulty.DEFAULT);
+    }
+
+    // constructor to accept a fixed difficulty for every block
+    public Blockchain(Difficulty difficulty) {
+        this(difficulty, 0, 0, null);
+    }
+
+    // constructor to accept a starting difficulty, retargeted every retargetInterval blocks
+    //    targetBlockInterval is in the units of the block timestamps, e.g. seconds for epoch seconds
+    public Blockchain(Difficulty initial, long targetBlockInterval, int retargetInterval) {
+        this(initial, checkInterval(targetBlockInterval, retargetInterval), retargetInterval, null);
+    }
+
+    // constructor for a chain kept in a store, whose blocks all start with two zero hex digits
+    public Blockchain(BlockStore store) {
+        this(store, Difficulty.DEFAULT);
+    }
+
+    // constructor to accept a store and a fixed difficulty for every block
+    public Blockchain(BlockStore store, Difficulty difficulty) {
+        this(difficulty, 0, 0, checkStore(store));
+    }
+
+    // constructor to accept a store and a starting difficulty, retargeted every retargetInterval blocks
+    public Blockchain(BlockStore store, Difficulty initial, long targetBlockInterval, int retargetInterval) {
+        this(initial, checkInterval(targetBlockInterval, retargetInterval), retargetInterval, checkStore(store));
+    }
+
+    private Blockchain(Difficulty initial, long targetBlockInterval, int retargetInterval, BlockStore store) {
+        if (initial == null) {
+            throw new IllegalArgumentException("difficulty cannot be null");
+        }
+        this.store = store;
+        this.periods.add(initial);
+        this.targetBlockInterval = targetBlockInterval;
+        this.retargetInterval = retargetInterval;
+        for (int size = 1; size <= this.size(); size++) {
+            retargetAfter(size);
+        }
+    }
+
+    private static long checkInterval(long targetBlockInterval, int retargetInterval) {
+        if ((targetBlockInterval <= 0) || (retargetInterval < 2)) {
+            throw new IllegalArgumentException("targetBlockInterval must be positive and retargetInterval at least 2");
+        }
+        return targetBlockInterval;
+    }
+
+    private static BlockStore checkStore(BlockStore store) {
+        if (store == null) {
+            throw new IllegalArgumentException("store cannot be null");
+        }
+        return store;
+    }
 
     public boolean isEmpty() {
         //Description:
@@ -16,18 +97,67 @@ public class Blockchain {
         //   N/A
         //Returns:
         //   boolean; True if nonzero blockchain size, False if blockchain size is zero
-        return blockchain.size() == 0;
+        return this.size() == 0;
     }
 
     public void add(Block block) throws NoSuchAlgorithmException {
         //Description:
-        //   a method for adding a block to our blockchain ArrayList
+        //   a method for adding a block to our blockchain ArrayList, or to the store that holds the chain
         //Parameters:
         //   block | Block | a class holding previousHash, creation timestamp, nonce, and the block's hash
         //Returns:
         //   void
         // Block newBlock = mine(block); // (tests assume blocks can be added if not mined) newBlock is added only after being successfully mined
-        blockchain.add(block);
+        if (store == null) {
+            blockchain.add(new CompactBlock(block));
+        } else {
+            try {
+                store.append(block);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        retargetAfter(this.size());
+    }
+
+    private void retargetAfter(int size) {
+        // when the first size blocks complete a retarget period, it sets the difficulty of the next one
+        if ((retargetInterval > 0) && (size % retargetInterval == 0)) {
+            long actualSpan = timestampAt(size - 1) - timestampAt(size - retargetInterval);
+            long expectedSpan = targetBlockInterval * (retargetInterval - 1);
+            periods.add(periods.get(periods.size() - 1).retarget(actualSpan, expectedSpan));
+        }
+    }
+
+    private long timestampAt(int index) {
+        return (store == null) ? blockchain.get(index).getTimestamp() : store.timestampAt(index);
+    }
+
+    private CompactBlock blockAt(int index) {
+        return (store == null) ? blockchain.get(index) : store.compactAt(index);
+    }
+
+    public Difficulty difficulty() {
+        //Description:
+        //   a method for the difficulty the next block added to the chain must meet
+        //Parameters:
+        //   N/A
+        //Returns:
+        //   difficulty | Difficulty | the difficulty to mine the next block to
+        return periods.get(periods.size() - 1);
+    }
+
+    public Difficulty difficultyAt(int index) {
+        //Description:
+        //   a method for the difficulty the block at an index had to meet
+        //Parameters:
+        //   index | int | the block's position in the chain, from 0 up to size()
+        //Returns:
+        //   difficulty | Difficulty | the difficulty of that block's retarget period
+        if ((index < 0) || (index > this.size())) {
+            throw new IndexOutOfBoundsException("index " + index + " for a chain of " + this.size());
+        }
+        return (retargetInterval == 0) ? periods.get(0) : periods.get(index / retargetInterval);
     }
 
     public int size() {
@@ -36,8 +166,8 @@ public class Blockchain {
         //Parameters:
         //   N/A
         //Returns:
-        //   integer of blockchain size based on blockchain ArrayList size
-        return blockchain.size();
+        //   integer of blockchain size based on blockchain ArrayList or store size
+        return (store == null) ? blockchain.size() : store.size();
     }
 
     public boolean isValid() throws NoSuchAlgorithmException {
@@ -48,30 +178,77 @@ public class Blockchain {
         //   N/A
         //Returns:
         //   boolean; True if all blocks in chain are valid, False if any blocks are invalid
+        return this.firstInvalidIndex() == -1; // an empty blockchain is valid
+    }
 
-        // check an empty chain
-        if (this.size() == 0){
-            return true; // an empty blockchain is valid
-        }
-        // check a chain of many
-        for (int i = 0; i < blockchain.size(); i++){
-            Block currentBlock = blockchain.get(i);           
-            // check that current block has been mined
-            if (!isMined(currentBlock)){
-                return false;
+    public int firstInvalidIndex() {
+        //Description:
+        //   a method for finding the first block that breaks the chain, checking blocks in order
+        //   only blocks after the verified prefix are checked, and the prefix grows to cover those found valid
+        //   hashes are recomputed into a reused digest and compared without building hex strings
+        //   ParallelValidator finds the same block on several threads
+        //Parameters:
+        //   N/A
+        //Returns:
+        //   the index of the first invalid block, -1 if all blocks in chain are valid
+        BlockHasher hasher = BlockHasher.forThread();
+        int size = this.size();
+        for (int i = verified; i < size; i++){
+            if (!isValidAt(i, hasher)){
+                verified = i;
+                return i;
             }
-            // check the current block hash health
-            String recalculatedHash = currentBlock.calculatedHash();
-            if (!recalculatedHash.equals(currentBlock.getHash())){
+        }
+        verified = size;
+        return -1;
+    }
+
+    public int verifiedBlocks() {
+        // the number of leading blocks known to be valid; the next validation starts after them
+        return verified;
+    }
+
+    public void resetVerified() {
+        // forget the verified prefix so the next validation checks the whole chain again
+        verified = 0;
+    }
+
+    void prepareForReaders() {
+        // make the blocks safe to read from several threads, for ParallelValidator; a store maps them all now
+        if (store != null) {
+            store.mapAll();
+        }
+    }
+
+    void markVerified(int blocks) {
+        // record that the leading blocks have been validated, for ParallelValidator
+        verified = blocks;
+    }
+
+    boolean isValidAt(int index, BlockHasher hasher) {
+        //Description:
+        //   a method for checking one block, which only involves the block and the one before it
+        //Parameters:
+        //   index | int | the block's position in the chain
+        //   hasher | BlockHasher | the calling thread's hasher
+        //Returns:
+        //   boolean; True if the block is mined, its hash is healthy and it links to the previous block
+        CompactBlock currentBlock = blockAt(index);
+        hasher.reset(currentBlock);
+        // check that current block has been mined
+        if (!hasher.mines(currentBlock.getNonce(), difficultyAt(index))){
+            return false;
+        }
+        // check the current block hash health
+        if (!hasher.matches(currentBlock)){
+            return false;
+        }
+        if (index > 0) {
+            CompactBlock previousBlock = blockAt(index-1);
+            // check that current block uses previous block's hash
+            if (!currentBlock.follows(previousBlock)){
                 return false;
             }
-            if (i > 0) {
-                Block previousBlock = blockchain.get(i-1);
-                // check that current block uses previous block's hash
-                if (!currentBlock.getPreviousHash().equals(previousBlock.getHash())){
-                    return false;
-                }
-            }
         }
         return true;
     }
@@ -79,16 +256,29 @@ public class Blockchain {
     /// Supporting functions that you'll need.
 
     public static Block mine(Block block) throws NoSuchAlgorithmException {
+        return mine(block, Difficulty.DEFAULT);
+    }
 
-        Block mined = new Block(block.getPreviousHash(), block.getTimestamp(), block.getNonce());
+    public static Block mine(Block block, Difficulty difficulty) throws NoSuchAlgorithmException {
+        // nonces are tried on the raw digest and only the winning block is built
+        if (difficulty == null) {
+            throw new IllegalArgumentException("difficulty cannot be null");
+        }
+        BlockHasher hasher = BlockHasher.forThread();
+        hasher.reset(block.getPreviousHash(), block.getTimestamp());
 
-        while (!isMined(mined)) {
-            mined = new Block(mined.getPreviousHash(), mined.getTimestamp(), mined.getNonce() + 1);
+        int nonce = block.getNonce();
+        while (!hasher.mines(nonce, difficulty)) {
+            nonce++;
         }
-        return mined;
+        return new Block(block.getPreviousHash(), block.getTimestamp(), nonce);
     }
 
     public static boolean isMined(Block minedBlock) {
-        return minedBlock.getHash().startsWith("00");
+        return isMined(minedBlock, Difficulty.DEFAULT);
+    }
+
+    public static boolean isMined(Block minedBlock, Difficulty difficulty) {
+        return difficulty.isMetBy(minedBlock.getHash());
     }
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+package io.collective.basic;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+public final class CompactBlock {
+    //Description:
+    //   a block held in binary: each 32-byte hash is four longs, most significant first, instead of a
+    //   64-character hex String, so a block takes about 100 bytes of heap rather than the 240 of a Block and
+    //   its two hash Strings
+    //   hashes are compared as longs, and rendered as hex only when getHash or getPreviousHash asks for them;
+    //   the hex is not kept, so it is built again on every call
+    //   a hash that is not in Block's hex form, like a genesis block's "0" previous hash, is kept as its text,
+    //   so every Block converts exactly; such a hash never equals one in hex form, just as the Strings differ
+    //   a compact block is immutable
+
+    private static final int HASH_BYTES = 32;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final byte PREVIOUS_TEXT = 1;
+    private static final byte HASH_TEXT = 2;
+
+    private final long previous0, previous1, previous2, previous3;
+    private final long hash0, hash1, hash2, hash3;
+    private final long timestamp;
+    private final int nonce;
+    private final byte texts; // which hashes are kept as text
+    private final String previousText; // the previous hash when it is not hex
+    private final String hashText; // the hash when it is not hex
+
+    // constructor to accept a block to convert
+    public CompactBlock(Block block) {
+        if (block == null) {
+            throw new IllegalArgumentException("block cannot be null");
+        }
+        String previousHash = block.getPreviousHash();
+        String hash = block.getHash();
+        boolean previousIsHex = isHex(previousHash);
+        boolean hashIsHex = isHex(hash);
+        this.previous0 = previousIsHex ? parse(previousHash, 0) : 0;
+        this.previous1 = previousIsHex ? parse(previousHash, 1) : 0;
+        this.previous2 = previousIsHex ? parse(previousHash, 2) : 0;
+        this.previous3 = previousIsHex ? parse(previousHash, 3) : 0;
+        this.hash0 = hashIsHex ? parse(hash, 0) : 0;
+        this.hash1 = hashIsHex ? parse(hash, 1) : 0;
+        this.hash2 = hashIsHex ? parse(hash, 2) : 0;
+        this.hash3 = hashIsHex ? parse(hash, 3) : 0;
+        this.timestamp = block.getTimestamp();
+        this.nonce = block.getNonce();
+        this.texts = (byte) ((previousIsHex ? 0 : PREVIOUS_TEXT) | (hashIsHex ? 0 : HASH_TEXT));
+        this.previousText = previousIsHex ? null : previousHash;
+        this.hashText = hashIsHex ? null : hash;
+    }
+
+    // constructor for a block read from a BlockStore, whose hash is always binary
+    CompactBlock(long[] previous, String previousText, long timestamp, int nonce, long[] hash) {
+        boolean previousIsHex = (previous != null);
+        this.previous0 = previousIsHex ? previous[0] : 0;
+        this.previous1 = previousIsHex ? previous[1] : 0;
+        this.previous2 = previousIsHex ? previous[2] : 0;
+        this.previous3 = previousIsHex ? previous[3] : 0;
+        this.hash0 = hash[0];
+        this.hash1 = hash[1];
+        this.hash2 = hash[2];
+        this.hash3 = hash[3];
+        this.timestamp = timestamp;
+        this.nonce = nonce;
+        this.texts = previousIsHex ? 0 : PREVIOUS_TEXT;
+        this.previousText = previousIsHex ? null : previousText;
+        this.hashText = null;
+    }
+
+    public String getPreviousHash() {
+        // the previous hash as Block holds it, rendered from binary when it is a hash
+        return ((texts & PREVIOUS_TEXT) != 0) ? previousText : hex(previous0, previous1, previous2, previous3);
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getNonce() {
+        return nonce;
+    }
+
+    public String getHash() {
+        // the hash as Block holds it, rendered from binary when it is a hash
+        return ((texts & HASH_TEXT) != 0) ? hashText : hex(hash0, hash1, hash2, hash3);
+    }
+
+    public Block toBlock() {
+        // the block as a Block, with the hash it was converted with
+        return new Block(getPreviousHash(), timestamp, nonce, getHash());
+    }
+
+    public boolean follows(CompactBlock previous) {
+        //Description:
+        //   a method to check that this block links to a previous one, comparing hashes as longs
+        //Parameters:
+        //   previous | CompactBlock | the block before this one in a chain
+        //Returns:
+        //   boolean; True if this block's previous hash is the previous block's hash
+        if (((texts & PREVIOUS_TEXT) != 0) || ((previous.texts & HASH_TEXT) != 0)) {
+            return ((texts & PREVIOUS_TEXT) != 0) && ((previous.texts & HASH_TEXT) != 0)
+                    && (previousText != null) && previousText.equals(previous.hashText);
+        }
+        return (previous0 == previous.hash0) && (previous1 == previous.hash1)
+                && (previous2 == previous.hash2) && (previous3 == previous.hash3);
+    }
+
+    boolean hashIs(byte[] digest) {
+        // whether this block's hash is a raw SHA-256 digest
+        return ((texts & HASH_TEXT) == 0)
+                && (hash0 == read(digest, 0)) && (hash1 == read(digest, 1))
+                && (hash2 == read(digest, 2)) && (hash3 == read(digest, 3));
+    }
+
+    int writePrevious(byte[] input) {
+        //Description:
+        //   a method to write the previous hash's hex digits into a hashing input, as Block's String would encode
+        //Parameters:
+        //   input | byte[] | a buffer of at least 64 bytes
+        //Returns:
+        //   the number of bytes written, -1 when the previous hash is text and must be encoded by the caller
+        if ((texts & PREVIOUS_TEXT) != 0) {
+            return -1;
+        }
+        writeHex(previous0, input, 0);
+        writeHex(previous1, input, 16);
+        writeHex(previous2, input, 32);
+        writeHex(previous3, input, 48);
+        return HASH_BYTES * 2;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof CompactBlock)) {
+            return false;
+        }
+        CompactBlock block = (CompactBlock) other;
+        return (timestamp == block.timestamp) && (nonce == block.nonce) && (texts == block.texts)
+                && (hash0 == block.hash0) && (hash1 == block.hash1) && (hash2 == block.hash2) && (hash3 == block.hash3)
+                && (previous0 == block.previous0) && (previous1 == block.previous1)
+                && (previous2 == block.previous2) && (previous3 == block.previous3)
+                && Objects.equals(previousText, block.previousText)
+                && Objects.equals(hashText, block.hashText);
+    }
+
+    @Override
+    public int hashCode() {
+        // the hash is already uniformly distributed, and almost always decides equality
+        return ((texts & HASH_TEXT) != 0) ? Objects.hashCode(hashText) : (int) (hash0 ^ (hash0 >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "CompactBlock[" + getHash() + "]";
+    }
+
+    static boolean isHex(String hash) {
+        // whether a string is a hash in Block's form, 64 lower-case hex digits
+        if ((hash == null) || (hash.length() != HASH_BYTES * 2)) {
+            return false;
+        }
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            if (!(((c >= '0') && (c <= '9')) || ((c >= 'a') && (c <= 'f')))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parse(String hash, int word) {
+        return Long.parseUnsignedLong(hash, 16 * word, 16 * word + 16, 16);
+    }
+
+    private static long read(byte[] digest, int word) {
+        long value = 0;
+        for (int i = 8 * word; i < 8 * word + 8; i++) {
+            value = (value << 8) | (digest[i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static void writeHex(long word, byte[] input, int position) {
+        for (int i = 0; i < 16; i++) {
+            input[position + i] = (byte) HEX[(int) (word >>> (60 - 4 * i)) & 0xF];
+        }
+    }
+
+    private static String hex(long word0, long word1, long word2, long word3) {
+        byte[] hex = new byte[HASH_BYTES * 2];
+        writeHex(word0, hex, 0);
+        writeHex(word1, hex, 16);
+        writeHex(word2, hex, 32);
+        writeHex(word3, hex, 48);
+        return new String(hex, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,128 @@
+package io.collective.basic;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+public final class Difficulty {
+    //Description:
+    //   the proof-of-work a block must show: its SHA-256 hash, read as an unsigned 256-bit number, must not
+    //   exceed a target
+    //   a difficulty can be given as a number of leading zero bits, which is the target 2^(256 - bits) - 1, or
+    //   as any 256-bit target; eight leading zero bits is the two "00" hex digits the chain has always required
+    //   the target is kept as 32 big-endian bytes so a raw digest is compared byte by byte and almost every
+    //   failed attempt is decided by its first byte, without the hash ever becoming a hex string
+    //   a difficulty is immutable; retarget returns a new one
+
+    private static final int BYTES = 32;
+    private static final int MAX_ADJUSTMENT = 4; // retarget never moves the target by more than this factor
+    private static final BigInteger LIMIT = BigInteger.ONE.shiftLeft(BYTES * 8);
+    private static final BigInteger MAX_TARGET = LIMIT.subtract(BigInteger.ONE);
+
+    public static final Difficulty DEFAULT = new Difficulty(8); // declared after the constants it is built from
+
+    private final byte[] target = new byte[BYTES];
+
+    // constructor to accept the number of leading zero bits a hash must have
+    public Difficulty(int leadingZeroBits) {
+        this(zeroBitsTarget(leadingZeroBits));
+    }
+
+    // constructor to accept the 256-bit target a hash must not exceed
+    public Difficulty(BigInteger target) {
+        if ((target == null) || (target.signum() < 0) || (target.compareTo(LIMIT) >= 0)) {
+            throw new IllegalArgumentException("target must be between 0 and 2^256 - 1");
+        }
+        byte[] magnitude = target.toByteArray(); // big-endian, possibly with a leading sign byte
+        int length = Math.min(magnitude.length, BYTES);
+        System.arraycopy(magnitude, magnitude.length - length, this.target, BYTES - length, length);
+    }
+
+    private static BigInteger zeroBitsTarget(int leadingZeroBits) {
+        if ((leadingZeroBits < 0) || (leadingZeroBits > BYTES * 8)) {
+            throw new IllegalArgumentException("leadingZeroBits must be between 0 and 256");
+        }
+        return BigInteger.ONE.shiftLeft(BYTES * 8 - leadingZeroBits).subtract(BigInteger.ONE);
+    }
+
+    public boolean isMetBy(byte[] digest) {
+        //Description:
+        //   a method to check a raw SHA-256 digest against the target
+        //Parameters:
+        //   digest | byte[] | the 32-byte digest, most significant byte first
+        //Returns:
+        //   boolean; True if the digest does not exceed the target
+        for (int i = 0; i < BYTES; i++) {
+            int hashByte = digest[i] & 0xFF;
+            int targetByte = target[i] & 0xFF;
+            if (hashByte != targetByte) {
+                return hashByte < targetByte;
+            }
+        }
+        return true;
+    }
+
+    public boolean isMetBy(String hash) {
+        //Description:
+        //   a method to check a hash in the 64-character lower-case hex form of Block against the target
+        //Parameters:
+        //   hash | String | the hex hash
+        //Returns:
+        //   boolean; True if the hash does not exceed the target, False for a malformed hash
+        if ((hash == null) || (hash.length() != BYTES * 2)) {
+            return false;
+        }
+        for (int i = 0; i < BYTES * 2; i++) {
+            int hashDigit = Character.digit(hash.charAt(i), 16);
+            int targetDigit = (i % 2 == 0) ? (target[i / 2] >> 4) & 0xF : target[i / 2] & 0xF;
+            if (hashDigit < 0) {
+                return false;
+            }
+            if (hashDigit != targetDigit) {
+                return hashDigit < targetDigit;
+            }
+        }
+        return true;
+    }
+
+    public Difficulty retarget(long actualSpan, long expectedSpan) {
+        //Description:
+        //   a method to adjust the target so blocks arrive as often as intended
+        //   the target is scaled by actualSpan / expectedSpan: blocks that came too quickly lower it, making the
+        //   next blocks harder, and slow blocks raise it; one step moves it by at most a factor of four either
+        //   way, so a few odd timestamps cannot swing the difficulty far, and it never falls below 1
+        //Parameters:
+        //   actualSpan | long | the time the recent blocks took, in the units of their timestamps
+        //   expectedSpan | long | the time they should have taken
+        //Returns:
+        //   difficulty | Difficulty | the adjusted difficulty
+        if (expectedSpan <= 0) {
+            throw new IllegalArgumentException("expectedSpan must be positive");
+        }
+        BigInteger current = target();
+        BigInteger scaled = current.multiply(BigInteger.valueOf(actualSpan)).divide(BigInteger.valueOf(expectedSpan));
+        BigInteger lowest = current.divide(BigInteger.valueOf(MAX_ADJUSTMENT));
+        BigInteger highest = current.multiply(BigInteger.valueOf(MAX_ADJUSTMENT));
+        // a target of 0 could only be met by an all-zero digest, and would never grow back from 0 * 4
+        BigInteger adjusted = scaled.max(lowest).min(highest).max(BigInteger.ONE).min(MAX_TARGET);
+        return new Difficulty(adjusted);
+    }
+
+    public BigInteger target() {
+        return new BigInteger(1, target);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return (other instanceof Difficulty) && Arrays.equals(target, ((Difficulty) other).target);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(target);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Difficulty[target=%064x]", target());
+    }
+}
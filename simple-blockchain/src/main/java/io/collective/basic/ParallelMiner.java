@@ -0,0 +1,126 @@
+package io.collective.basic;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ParallelMiner implements AutoCloseable {
+    //Description:
+    //   a mining engine that searches the nonce space of a block on several worker threads at once
+    //   worker w of n tries the nonces start + w, start + w + n, start + w + 2n, ... so the workers never
+    //   repeat each other's attempts and together cover all 2^32 int nonces, wrapping past Integer.MAX_VALUE
+    //   the first worker to find a mined block publishes it and the others stop at their next attempt,
+    //   so the winning nonce is whichever was found first, not necessarily the lowest one
+    //   the workers are daemon threads kept for the life of the miner; close shuts them down
+
+    private static final long NONCES = 1L << 32; // every int value
+
+    private final int workers;
+    private final ExecutorService pool;
+    private final LongAdder hashCount = new LongAdder();
+
+    // constructor to accept the number of worker threads
+    public ParallelMiner(int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("workers must be positive");
+        }
+        this.workers = workers;
+        this.pool = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "parallel-miner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // overloaded constructor with one worker per core
+    public ParallelMiner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public Block mine(Block block) throws NoSuchAlgorithmException, InterruptedException {
+        return mine(block, Difficulty.DEFAULT);
+    }
+
+    public Block mine(Block block, Difficulty difficulty) throws NoSuchAlgorithmException, InterruptedException {
+        //Description:
+        //   a method to find a nonce at or after the block's own that makes it mined, as Blockchain.mine does
+        //Parameters:
+        //   block | Block | the block to mine; its previousHash and timestamp are kept
+        //   difficulty | Difficulty | the target the block's hash must meet
+        //Returns:
+        //   mined | Block | a mined copy of the block
+        if (difficulty == null) {
+            throw new IllegalArgumentException("difficulty cannot be null");
+        }
+        AtomicReference<Block> winner = new AtomicReference<>();
+        List<Callable<Void>> searches = new ArrayList<>(workers);
+        for (int worker = 0; worker < workers; worker++) {
+            int first = worker;
+            searches.add(() -> {
+                search(block, difficulty, first, winner);
+                return null;
+            });
+        }
+
+        for (Future<Void> search : pool.invokeAll(searches)) {
+            try {
+                search.get();
+            } catch (ExecutionException failed) {
+                Throwable cause = failed.getCause();
+                if (cause instanceof NoSuchAlgorithmException) {
+                    throw (NoSuchAlgorithmException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw (Error) cause;
+            }
+        }
+        if (winner.get() == null) {
+            throw new IllegalStateException("no nonce mines this block");
+        }
+        return winner.get();
+    }
+
+    private void search(Block block, Difficulty difficulty, int first, AtomicReference<Block> winner)
+            throws NoSuchAlgorithmException {
+        // try this worker's share of the nonces until one is mined or another worker has won
+        BlockHasher hasher = BlockHasher.forThread();
+        hasher.reset(block.getPreviousHash(), block.getTimestamp());
+        long attempts = 0;
+        try {
+            for (long offset = first; (offset < NONCES) && (winner.get() == null); offset += workers) {
+                int nonce = (int) (block.getNonce() + offset);
+                attempts++;
+                if (hasher.mines(nonce, difficulty)) {
+                    winner.compareAndSet(null, new Block(block.getPreviousHash(), block.getTimestamp(), nonce));
+                    return;
+                }
+            }
+        } finally {
+            hashCount.add(attempts);
+        }
+    }
+
+    public long hashCount() {
+        // the number of hashes computed by all workers since the miner was created
+        return hashCount.sum();
+    }
+
+    public int workers() {
+        return workers;
+    }
+
+    @Override
+    public void close() {
+        // stop the worker threads; a mine in progress finishes first
+        pool.shutdown();
+    }
+}
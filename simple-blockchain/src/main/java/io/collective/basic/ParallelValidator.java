@@ -0,0 +1,133 @@
+package io.collective.basic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelValidator implements AutoCloseable {
+    //Description:
+    //   a validation engine that checks the blocks of a chain on several worker threads at once
+    //   checking a block only involves the block and the one before it, so the chain is cut into segments
+    //   of consecutive blocks that the workers claim in order and check independently
+    //   once a worker finds an invalid block, no one checks blocks after it: workers stop claiming segments
+    //   that start beyond it and stop scanning at it, while segments before it finish, so the index reported
+    //   is the first invalid block of the chain, the same one Blockchain.firstInvalidIndex finds
+    //   like Blockchain.firstInvalidIndex it starts after the chain's verified prefix and advances it, so only
+    //   the blocks appended since the last validation are segmented; a tail no longer than one segment is
+    //   checked on the calling thread
+    //   the chain must not be added to while it is being validated; a chain kept in a BlockStore has every
+    //   block mapped on the calling thread before the workers start, so they only ever read the store
+    //   the workers are daemon threads kept for the life of the validator; close shuts them down
+
+    private static final int DEFAULT_SEGMENT_BLOCKS = 4096;
+    private static final int VALID = Integer.MAX_VALUE; // no invalid block found yet
+
+    private final int workers;
+    private final int segmentBlocks;
+    private final ExecutorService pool;
+
+    // constructor to accept the number of worker threads and the number of blocks in a segment
+    public ParallelValidator(int workers, int segmentBlocks) {
+        if ((workers <= 0) || (segmentBlocks <= 0)) {
+            throw new IllegalArgumentException("workers and segmentBlocks must be positive");
+        }
+        this.workers = workers;
+        this.segmentBlocks = segmentBlocks;
+        this.pool = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "parallel-validator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // overloaded constructor with one worker per core
+    public ParallelValidator() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_SEGMENT_BLOCKS);
+    }
+
+    public boolean isValid(Blockchain chain) throws InterruptedException {
+        //Description:
+        //   a method for determining if the chain of blocks is valid, as Blockchain.isValid does
+        //Parameters:
+        //   chain | Blockchain | the chain to check
+        //Returns:
+        //   boolean; True if all blocks in chain are valid, False if any blocks are invalid
+        return firstInvalidIndex(chain) == -1;
+    }
+
+    public int firstInvalidIndex(Blockchain chain) throws InterruptedException {
+        //Description:
+        //   a method for finding the first block that breaks the chain, checking segments concurrently
+        //Parameters:
+        //   chain | Blockchain | the chain to check
+        //Returns:
+        //   the index of the first invalid block, -1 if all blocks in chain are valid
+        int size = chain.size();
+        int verified = chain.verifiedBlocks();
+        if (size - verified <= segmentBlocks) {
+            return chain.firstInvalidIndex();
+        }
+
+        chain.prepareForReaders(); // happens-before the workers' reads, since they are submitted after it
+        AtomicInteger nextSegment = new AtomicInteger();
+        AtomicInteger firstInvalid = new AtomicInteger(VALID);
+        List<Callable<Void>> checks = new ArrayList<>(workers);
+        for (int worker = 0; worker < workers; worker++) {
+            checks.add(() -> {
+                check(chain, verified, size, nextSegment, firstInvalid);
+                return null;
+            });
+        }
+
+        for (Future<Void> check : pool.invokeAll(checks)) {
+            try {
+                check.get();
+            } catch (ExecutionException failed) {
+                Throwable cause = failed.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw (Error) cause;
+            }
+        }
+        if (firstInvalid.get() == VALID) {
+            chain.markVerified(size);
+            return -1;
+        }
+        chain.markVerified(firstInvalid.get());
+        return firstInvalid.get();
+    }
+
+    private void check(Blockchain chain, int verified, int size, AtomicInteger nextSegment, AtomicInteger firstInvalid) {
+        // claim segments in order and check their blocks until the chain is done or an earlier block failed
+        BlockHasher hasher = BlockHasher.forThread();
+        while (true) {
+            long start = verified + (long) nextSegment.getAndIncrement() * segmentBlocks;
+            if ((start >= size) || (start > firstInvalid.get())) {
+                return;
+            }
+            int end = (int) Math.min(start + segmentBlocks, size);
+            for (int i = (int) start; (i < end) && (i < firstInvalid.get()); i++) {
+                if (!chain.isValidAt(i, hasher)) {
+                    firstInvalid.accumulateAndGet(i, Math::min);
+                    return;
+                }
+            }
+        }
+    }
+
+    public int workers() {
+        return workers;
+    }
+
+    @Override
+    public void close() {
+        // stop the worker threads; a validation in progress finishes first
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,201 @@
+package test.collective.basic;
+
+import io.collective.basic.Block;
+import io.collective.basic.BlockStore;
+import io.collective.basic.Blockchain;
+import io.collective.basic.Difficulty;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.TestCase.*;
+
+public class BlockStoreTest {
+    Path directory;
+    BlockStore store;
+
+    public BlockStoreTest() throws IOException {
+        directory = Files.createTempDirectory("block-store-test");
+        store = new BlockStore(directory, 4);
+    }
+
+    @After
+    public void after() throws IOException {
+        store.close();
+        for (File file : directory.toFile().listFiles()) {
+            file.delete();
+        }
+        directory.toFile().delete();
+    }
+
+    List<Block> appendChain(int size) throws NoSuchAlgorithmException, IOException {
+        List<Block> blocks = new ArrayList<>();
+        String previousHash = "0";
+        for (int i = 0; i < size; i++) {
+            Block mined = Blockchain.mine(new Block(previousHash, 1_700_000_000L + i, 0));
+            store.append(mined);
+            blocks.add(mined);
+            previousHash = mined.getHash();
+        }
+        return blocks;
+    }
+
+    static void assertSameBlock(Block expected, Block actual) {
+        assertEquals(expected.getPreviousHash(), actual.getPreviousHash());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getNonce(), actual.getNonce());
+        assertEquals(expected.getHash(), actual.getHash());
+    }
+
+    @Test
+    public void appendAndGet() throws NoSuchAlgorithmException, IOException {
+        assertTrue(store.isEmpty());
+        List<Block> blocks = appendChain(10);
+
+        assertEquals(10, store.size());
+        for (int i = 0; i < 10; i++) {
+            assertSameBlock(blocks.get(i), store.get(i));
+            assertEquals(blocks.get(i).getTimestamp(), store.timestampAt(i));
+        }
+        assertEquals("0", store.get(0).getPreviousHash());
+        // the third segment holds two blocks, but reading it reserved the space of all four
+        assertEquals(4 * 80, Files.size(directory.resolve("blocks-00000002.dat")));
+    }
+
+    @Test
+    public void heightOfHash() throws NoSuchAlgorithmException, IOException {
+        List<Block> blocks = appendChain(50);
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, store.heightOf(blocks.get(i).getHash()));
+        }
+        assertEquals(-1, store.heightOf("0"));
+        assertEquals(-1, store.heightOf(Blockchain.mine(new Block("elsewhere", 0, 0)).getHash()));
+    }
+
+    @Test
+    public void duplicateHashesFindTheLowestHeight() throws NoSuchAlgorithmException, IOException {
+        List<Block> blocks = new ArrayList<>();
+        for (int timestamp = 0; timestamp < 10; timestamp++) {
+            Block block = Blockchain.mine(new Block("0", timestamp, 0));
+            blocks.add(block);
+            for (int i = 0; i < 100; i++) {
+                store.append(block); // the index grows several times along the way, and probe runs wrap
+            }
+        }
+        for (int i = 0; i < blocks.size(); i++) {
+            assertEquals(100 * i, store.heightOf(blocks.get(i).getHash()));
+        }
+        store.close();
+
+        store = new BlockStore(directory, 4);
+        for (int i = 0; i < blocks.size(); i++) {
+            assertEquals(100 * i, store.heightOf(blocks.get(i).getHash()));
+        }
+    }
+
+    @Test
+    public void reopenedStoreKeepsItsBlocks() throws NoSuchAlgorithmException, IOException {
+        List<Block> blocks = appendChain(10);
+        store.close();
+
+        store = new BlockStore(directory, 4);
+        assertEquals(10, store.size());
+        assertEquals(9, store.heightOf(blocks.get(9).getHash()));
+        assertSameBlock(blocks.get(5), store.get(5));
+
+        Block next = Blockchain.mine(new Block(blocks.get(9).getHash(), 1_800_000_000L, 0));
+        store.append(next);
+        assertSameBlock(next, store.get(10));
+    }
+
+    @Test
+    public void halfWrittenAppendIsDropped() throws NoSuchAlgorithmException, IOException {
+        List<Block> blocks = appendChain(9);
+        store.close();
+        try (RandomAccessFile last = new RandomAccessFile(directory.resolve("blocks-00000002.dat").toFile(), "rw")) {
+            last.setLength(40); // the ninth record was cut short
+        }
+
+        store = new BlockStore(directory, 4);
+        assertEquals(8, store.size());
+        assertEquals(-1, store.heightOf(blocks.get(8).getHash()));
+        assertFalse(Files.exists(directory.resolve("blocks-00000002.dat")));
+
+        store.append(blocks.get(8));
+        assertEquals(8, store.heightOf(blocks.get(8).getHash()));
+    }
+
+    @Test
+    public void readsAfterEachAppendMapTheSegmentOnce() throws NoSuchAlgorithmException, IOException {
+        store.close();
+        store = new BlockStore(directory, 1000);
+        BufferPoolMXBean mapped = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("mapped")).findFirst().get();
+        long mappings = mapped.getCount();
+
+        String previousHash = "0";
+        for (int i = 0; i < 500; i++) {
+            Block mined = Blockchain.mine(new Block(previousHash, 1_700_000_000L + i, 0));
+            store.append(mined);
+            assertSameBlock(mined, store.get(i));
+            previousHash = mined.getHash();
+        }
+
+        assertTrue(mapped.getCount() - mappings <= 1);
+        store.close();
+        store = new BlockStore(directory, 1000);
+        assertEquals(500, store.size());
+        assertEquals(499, store.heightOf(previousHash));
+    }
+
+    @Test
+    public void chainKeptInAStore() throws NoSuchAlgorithmException, IOException {
+        Blockchain chain = new Blockchain(store, Difficulty.DEFAULT, 10, 4);
+        String previousHash = "0";
+        for (int i = 0; i < 10; i++) {
+            Block mined = Blockchain.mine(new Block(previousHash, 5L * i, 0), chain.difficulty());
+            chain.add(mined);
+            previousHash = mined.getHash();
+        }
+        assertTrue(chain.isValid());
+        Difficulty retargeted = chain.difficulty();
+        assertFalse(Difficulty.DEFAULT.equals(retargeted));
+        store.close();
+
+        store = new BlockStore(directory, 4);
+        Blockchain reopened = new Blockchain(store, Difficulty.DEFAULT, 10, 4);
+        assertEquals(10, reopened.size());
+        assertEquals(retargeted, reopened.difficulty());
+        assertTrue(reopened.isValid());
+
+        reopened.add(Blockchain.mine(new Block("anIncorrectHash", 60, 0), reopened.difficulty()));
+        assertEquals(10, reopened.firstInvalidIndex());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void hashMustBeHex() throws Exception {
+        Block block = Blockchain.mine(new Block("0", 0, 0));
+        Field hashField = Block.class.getDeclaredField("hash");
+        hashField.setAccessible(true);
+        hashField.set(block, "00 with some mischief");
+
+        store.append(block);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void previousHashMustFit() throws NoSuchAlgorithmException, IOException {
+        store.append(Blockchain.mine(new Block("a previous hash that is not a hash and too long", 0, 0)));
+    }
+}
@@ -102,4 +102,27 @@ public class BlockchainTest {
 
         assertFalse(invalid.isValid());
     }
+
+    @Test
+    public void mine_findsTheFirstMinedNonce() throws NoSuchAlgorithmException {
+        long timestamp = Instant.now().getEpochSecond();
+        for (int start : new int[]{0, -1000, Integer.MIN_VALUE, Integer.MAX_VALUE - 300}) {
+            Block mined = mine(new Block("0", timestamp, start));
+
+            int nonce = start;
+            while (!Blockchain.isMined(new Block("0", timestamp, nonce))) {
+                nonce++;
+            }
+            assertEquals(nonce, mined.getNonce());
+            assertEquals(mined.calculatedHash(), mined.getHash());
+        }
+    }
+
+    @Test
+    public void mine_nonAsciiPreviousHash() throws NoSuchAlgorithmException {
+        Block mined = mine(new Block("h\u00e4sh", 1_700_000_000L, 0));
+
+        assertTrue(Blockchain.isMined(mined));
+        assertEquals(mined.calculatedHash(), mined.getHash());
+    }
 }
@@ -0,0 +1,69 @@
+package test.collective.basic;
+
+import io.collective.basic.Block;
+import io.collective.basic.Blockchain;
+import io.collective.basic.CompactBlock;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.security.NoSuchAlgorithmException;
+
+import static junit.framework.TestCase.*;
+
+public class CompactBlockTest {
+
+    @Test
+    public void convertsExactly() throws NoSuchAlgorithmException {
+        Block genesis = Blockchain.mine(new Block("0", 1_700_000_000L, 0));
+        Block second = Blockchain.mine(new Block(genesis.getHash(), 1_700_000_001L, -5));
+
+        for (Block block : new Block[]{genesis, second, new Block(null, 3, 7)}) {
+            CompactBlock compact = new CompactBlock(block);
+            assertEquals(block.getPreviousHash(), compact.getPreviousHash());
+            assertEquals(block.getTimestamp(), compact.getTimestamp());
+            assertEquals(block.getNonce(), compact.getNonce());
+            assertEquals(block.getHash(), compact.getHash());
+
+            Block back = compact.toBlock();
+            assertEquals(block.getHash(), back.getHash());
+            assertEquals(block.getPreviousHash(), back.getPreviousHash());
+        }
+    }
+
+    @Test
+    public void followsComparesHashes() throws NoSuchAlgorithmException {
+        Block genesis = Blockchain.mine(new Block("0", 1, 0));
+        Block second = Blockchain.mine(new Block(genesis.getHash(), 2, 0));
+        Block stray = Blockchain.mine(new Block("anIncorrectHash", 2, 0));
+
+        assertTrue(new CompactBlock(second).follows(new CompactBlock(genesis)));
+        assertFalse(new CompactBlock(genesis).follows(new CompactBlock(second)));
+        assertFalse(new CompactBlock(stray).follows(new CompactBlock(genesis)));
+    }
+
+    @Test
+    public void equality() throws NoSuchAlgorithmException {
+        Block block = Blockchain.mine(new Block("0", 1, 0));
+        CompactBlock compact = new CompactBlock(block);
+
+        assertEquals(compact, new CompactBlock(block));
+        assertEquals(compact.hashCode(), new CompactBlock(block).hashCode());
+        assertFalse(compact.equals(new CompactBlock(Blockchain.mine(new Block("0", 2, 0)))));
+        assertFalse(compact.equals(new CompactBlock(new Block("1", 1, block.getNonce()))));
+    }
+
+    @Test
+    public void textHashesAreKept() throws Exception {
+        Block block = Blockchain.mine(new Block("0", 1, 0));
+        Field hashField = Block.class.getDeclaredField("hash");
+        hashField.setAccessible(true);
+        hashField.set(block, "00 with some mischief");
+
+        CompactBlock compact = new CompactBlock(block);
+        assertEquals("00 with some mischief", compact.getHash());
+
+        Blockchain chain = new Blockchain();
+        chain.add(block);
+        assertFalse(chain.isValid());
+    }
+}
@@ -0,0 +1,134 @@
+package test.collective.basic;
+
+import io.collective.basic.Block;
+import io.collective.basic.Blockchain;
+import io.collective.basic.Difficulty;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+import static junit.framework.TestCase.*;
+
+public class DifficultyTest {
+    static final String MAX_HASH = "ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff";
+
+    @Test
+    public void defaultIsTwoZeroHexDigits() {
+        assertEquals(new Difficulty(8), Difficulty.DEFAULT);
+        assertTrue(Difficulty.DEFAULT.isMetBy("00" + MAX_HASH.substring(2)));
+        assertFalse(Difficulty.DEFAULT.isMetBy("01" + "0".repeat(62)));
+        assertFalse(Difficulty.DEFAULT.isMetBy("00"));
+        assertFalse(Difficulty.DEFAULT.isMetBy("0g" + "0".repeat(62)));
+    }
+
+    @Test
+    public void zeroBitsMatchTheirTarget() {
+        assertEquals(new Difficulty(BigInteger.ONE.shiftLeft(244).subtract(BigInteger.ONE)), new Difficulty(12));
+        assertEquals(BigInteger.ZERO, new Difficulty(256).target());
+        assertTrue(new Difficulty(0).isMetBy(MAX_HASH));
+    }
+
+    @Test
+    public void hashEqualToTheTargetMeetsIt() {
+        BigInteger target = new BigInteger("0000a0000000000000000000000000000000000000000000000000000000ffff", 16);
+        Difficulty difficulty = new Difficulty(target);
+
+        assertTrue(difficulty.isMetBy(String.format("%064x", target)));
+        assertTrue(difficulty.isMetBy(String.format("%064x", target.subtract(BigInteger.ONE))));
+        assertFalse(difficulty.isMetBy(String.format("%064x", target.add(BigInteger.ONE))));
+    }
+
+    @Test
+    public void digestAndHexComparisonsAgree() {
+        Random random = new Random(42);
+        Difficulty difficulty = new Difficulty(new BigInteger("00ff", 16).shiftLeft(240));
+        for (int i = 0; i < 10_000; i++) {
+            byte[] digest = new byte[32];
+            random.nextBytes(digest);
+            digest[0] = (byte) random.nextInt(2); // keep both outcomes common
+            String hex = String.format("%064x", new BigInteger(1, digest));
+            assertEquals(difficulty.isMetBy(hex), difficulty.isMetBy(digest));
+        }
+    }
+
+    @Test
+    public void retargetScalesTheTargetWithinLimits() {
+        Difficulty difficulty = new Difficulty(16);
+        BigInteger target = difficulty.target();
+
+        assertEquals(target.divide(BigInteger.valueOf(2)), difficulty.retarget(50, 100).target());
+        assertEquals(target.multiply(BigInteger.valueOf(3)), difficulty.retarget(300, 100).target());
+        assertEquals(target.divide(BigInteger.valueOf(4)), difficulty.retarget(-10, 100).target());
+        assertEquals(target.multiply(BigInteger.valueOf(4)), difficulty.retarget(10_000, 100).target());
+        assertEquals(new Difficulty(0), new Difficulty(1).retarget(10_000, 100));
+    }
+
+    @Test
+    public void retargetNeverReachesZero() {
+        Difficulty tiny = new Difficulty(BigInteger.valueOf(3));
+
+        assertEquals(BigInteger.ONE, tiny.retarget(1, 100).target());
+        assertEquals(BigInteger.ONE, tiny.retarget(1, 100).retarget(1, 100).target());
+        assertEquals(BigInteger.valueOf(4), tiny.retarget(1, 100).retarget(10_000, 100).target());
+        assertEquals(BigInteger.ONE, new Difficulty(256).retarget(10_000, 100).target());
+    }
+
+    @Test
+    public void chainUsesItsOwnDifficulty() throws NoSuchAlgorithmException {
+        Difficulty twelveBits = new Difficulty(12);
+        Blockchain chain = new Blockchain(twelveBits);
+        Block genesis = Blockchain.mine(new Block("0", 1, 0), twelveBits);
+        chain.add(genesis);
+        chain.add(Blockchain.mine(new Block(genesis.getHash(), 2, 0), twelveBits));
+
+        assertTrue(chain.isValid());
+        assertTrue(genesis.getHash().startsWith("000"));
+
+        // a block that only meets the default difficulty does not belong on this chain
+        long timestamp = 3;
+        Block easy = Blockchain.mine(new Block("0", timestamp, 0));
+        while (Blockchain.isMined(easy, twelveBits)) {
+            easy = Blockchain.mine(new Block(easy.getPreviousHash(), ++timestamp, 0));
+        }
+        Blockchain invalid = new Blockchain(twelveBits);
+        invalid.add(easy);
+        assertFalse(invalid.isValid());
+    }
+
+    @Test
+    public void retargetingHoldsTheBlockInterval() throws NoSuchAlgorithmException {
+        Blockchain chain = new Blockchain(Difficulty.DEFAULT, 10, 4);
+        String previousHash = "0";
+        long timestamp = 0;
+        for (int i = 0; i < 4; i++) {
+            Block mined = Blockchain.mine(new Block(previousHash, timestamp += 5, 0), chain.difficulty());
+            chain.add(mined);
+            previousHash = mined.getHash();
+        }
+        // blocks came twice as fast as intended, so the target halves
+        assertEquals(Difficulty.DEFAULT.target().divide(BigInteger.valueOf(2)), chain.difficulty().target());
+        assertEquals(Difficulty.DEFAULT, chain.difficultyAt(3));
+        assertEquals(chain.difficulty(), chain.difficultyAt(4));
+
+        for (int i = 0; i < 4; i++) {
+            Block mined = Blockchain.mine(new Block(previousHash, timestamp += 20, 0), chain.difficulty());
+            chain.add(mined);
+            previousHash = mined.getHash();
+        }
+        // then twice as slow, so it is back where it started
+        assertEquals(Difficulty.DEFAULT.target().subtract(BigInteger.ONE), chain.difficulty().target());
+        assertTrue(chain.isValid());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroBitsMustFitTheHash() {
+        new Difficulty(257);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void targetMustFitTheHash() {
+        new Difficulty(BigInteger.ONE.shiftLeft(256));
+    }
+}
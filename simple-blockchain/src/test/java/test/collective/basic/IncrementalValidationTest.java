@@ -0,0 +1,92 @@
+package test.collective.basic;
+
+import io.collective.basic.Block;
+import io.collective.basic.Blockchain;
+import io.collective.basic.ParallelValidator;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.security.NoSuchAlgorithmException;
+
+import static junit.framework.TestCase.*;
+
+public class IncrementalValidationTest {
+    Blockchain chain = new Blockchain();
+    String previousHash = "0";
+    long timestamp = 0;
+
+    Block append() throws NoSuchAlgorithmException {
+        Block mined = Blockchain.mine(new Block(previousHash, ++timestamp, 0));
+        chain.add(mined);
+        previousHash = mined.getHash();
+        return mined;
+    }
+
+    static void tamper(Block block) throws NoSuchFieldException, IllegalAccessException {
+        Field hashField = Block.class.getDeclaredField("hash");
+        hashField.setAccessible(true);
+        hashField.set(block, "00 with some mischief");
+    }
+
+    @Test
+    public void validationAdvancesTheWatermark() throws NoSuchAlgorithmException {
+        assertEquals(0, chain.verifiedBlocks());
+        for (int i = 0; i < 10; i++) {
+            append();
+        }
+        assertEquals(0, chain.verifiedBlocks());
+
+        assertTrue(chain.isValid());
+        assertEquals(10, chain.verifiedBlocks());
+
+        append();
+        append();
+        assertEquals(10, chain.verifiedBlocks());
+        assertTrue(chain.isValid());
+        assertEquals(12, chain.verifiedBlocks());
+    }
+
+    @Test
+    public void addedBlocksAreCopied() throws Exception {
+        Block first = append();
+        append();
+        assertTrue(chain.isValid());
+
+        tamper(first); // the chain holds its own compact copy, so altering the Block changes nothing
+        chain.resetVerified();
+        assertEquals(0, chain.verifiedBlocks());
+        assertTrue(chain.isValid());
+        assertEquals(2, chain.verifiedBlocks());
+    }
+
+    @Test
+    public void newTailIsLinkedToTheVerifiedPrefix() throws NoSuchAlgorithmException {
+        append();
+        append();
+        assertTrue(chain.isValid());
+
+        chain.add(Blockchain.mine(new Block("anIncorrectHash", ++timestamp, 0)));
+        assertEquals(2, chain.firstInvalidIndex());
+        assertEquals(2, chain.verifiedBlocks());
+        assertFalse(chain.isValid());
+    }
+
+    @Test
+    public void parallelValidationSharesTheWatermark() throws NoSuchAlgorithmException, InterruptedException {
+        try (ParallelValidator validator = new ParallelValidator(2, 16)) {
+            for (int i = 0; i < 100; i++) {
+                append();
+            }
+            assertTrue(validator.isValid(chain));
+            assertEquals(100, chain.verifiedBlocks());
+
+            for (int i = 0; i < 100; i++) {
+                append();
+            }
+            chain.add(Blockchain.mine(new Block("anIncorrectHash", ++timestamp, 0)));
+            assertEquals(200, validator.firstInvalidIndex(chain));
+            assertEquals(200, chain.verifiedBlocks());
+            assertEquals(200, chain.firstInvalidIndex());
+        }
+    }
+}
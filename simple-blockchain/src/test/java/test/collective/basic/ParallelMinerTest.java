@@ -0,0 +1,56 @@
+package test.collective.basic;
+
+import io.collective.basic.Block;
+import io.collective.basic.Blockchain;
+import io.collective.basic.ParallelMiner;
+import org.junit.After;
+import org.junit.Test;
+
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+
+import static junit.framework.TestCase.*;
+
+public class ParallelMinerTest {
+    ParallelMiner miner = new ParallelMiner(4);
+
+    @After
+    public void tearDown() {
+        miner.close();
+    }
+
+    @Test
+    public void mine() throws NoSuchAlgorithmException, InterruptedException {
+        Block block = new Block("0", Instant.now().getEpochSecond(), 0);
+        Block mined = miner.mine(block);
+
+        assertTrue(Blockchain.isMined(mined));
+        assertEquals(block.getPreviousHash(), mined.getPreviousHash());
+        assertEquals(block.getTimestamp(), mined.getTimestamp());
+        assertEquals(mined.calculatedHash(), mined.getHash());
+        assertTrue(miner.hashCount() > 0);
+    }
+
+    @Test
+    public void minedBlocksFormAValidChain() throws NoSuchAlgorithmException, InterruptedException {
+        Blockchain chain = new Blockchain();
+        String previousHash = "0";
+        for (int i = 0; i < 20; i++) {
+            Block mined = miner.mine(new Block(previousHash, Instant.now().getEpochSecond(), 0));
+            chain.add(mined);
+            previousHash = mined.getHash();
+        }
+        assertTrue(chain.isValid());
+    }
+
+    @Test
+    public void nonceSearchWrapsPastMaxValue() throws NoSuchAlgorithmException, InterruptedException {
+        Block mined = miner.mine(new Block("0", Instant.now().getEpochSecond(), Integer.MAX_VALUE - 2));
+        assertTrue(Blockchain.isMined(mined));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void workersMustBePositive() {
+        new ParallelMiner(0);
+    }
+}
@@ -0,0 +1,104 @@
+package test.collective.basic;
+
+import io.collective.basic.Block;
+import io.collective.basic.BlockStore;
+import io.collective.basic.Blockchain;
+import io.collective.basic.ParallelValidator;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+
+import static junit.framework.TestCase.*;
+
+public class ParallelValidatorTest {
+    ParallelValidator validator = new ParallelValidator(4, 64);
+
+    @After
+    public void tearDown() {
+        validator.close();
+    }
+
+    static Blockchain chain(int size, int... brokenLinks) throws NoSuchAlgorithmException {
+        // a mined chain whose blocks at the given indexes point at the wrong previous hash
+        Blockchain chain = new Blockchain();
+        String previousHash = "0";
+        for (int i = 0; i < size; i++) {
+            String link = previousHash;
+            for (int broken : brokenLinks) {
+                if (broken == i) {
+                    link = "not" + previousHash;
+                }
+            }
+            Block mined = Blockchain.mine(new Block(link, i, 0));
+            chain.add(mined);
+            previousHash = mined.getHash();
+        }
+        return chain;
+    }
+
+    @Test
+    public void isValid() throws NoSuchAlgorithmException, InterruptedException {
+        assertTrue(validator.isValid(new Blockchain()));
+        assertTrue(validator.isValid(chain(10)));
+        assertTrue(validator.isValid(chain(1000)));
+        assertEquals(-1, validator.firstInvalidIndex(chain(1000)));
+    }
+
+    @Test
+    public void reportsTheFirstInvalidBlock() throws NoSuchAlgorithmException, InterruptedException {
+        Blockchain chain = chain(1000, 700, 130, 950);
+
+        assertFalse(validator.isValid(chain));
+        assertEquals(130, validator.firstInvalidIndex(chain));
+        assertEquals(130, chain.firstInvalidIndex());
+    }
+
+    @Test
+    public void failuresAtSegmentEdges() throws NoSuchAlgorithmException, InterruptedException {
+        for (int broken : new int[]{1, 63, 64, 65, 999}) {
+            Blockchain chain = chain(1000, broken);
+            assertEquals(broken, validator.firstInvalidIndex(chain));
+            assertEquals(broken, chain.firstInvalidIndex());
+        }
+    }
+
+    @Test
+    public void chainKeptInAReopenedStore() throws NoSuchAlgorithmException, IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("validator-store-test");
+        try {
+            try (BlockStore store = new BlockStore(directory, 100)) {
+                Blockchain chain = new Blockchain(store);
+                String previousHash = "0";
+                String genesisHash = null;
+                for (int i = 0; i < 1000; i++) {
+                    // block 870 links back to the genesis block instead of its predecessor
+                    Block mined = Blockchain.mine(new Block((i == 870) ? genesisHash : previousHash, i, 0));
+                    chain.add(mined);
+                    previousHash = mined.getHash();
+                    genesisHash = (i == 0) ? previousHash : genesisHash;
+                }
+            }
+
+            try (BlockStore store = new BlockStore(directory, 100)) {
+                Blockchain reopened = new Blockchain(store); // no segment is mapped until it is read
+                assertEquals(870, validator.firstInvalidIndex(reopened));
+                assertEquals(870, reopened.verifiedBlocks());
+            }
+        } finally {
+            for (File file : directory.toFile().listFiles()) {
+                file.delete();
+            }
+            directory.toFile().delete();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void segmentsMustHoldBlocks() {
+        new ParallelValidator(2, 0);
+    }
+}